@@ -0,0 +1,56 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.util.CardNumberUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<Card> cards;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("Иван Иванов");
+        cards = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Card card = new Card();
+            card.setId((long) i);
+            card.setNumber(CardNumberUtil.generateCardNumber());
+            card.setExpirationDate(LocalDateTime.now().plusYears(4));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(BigDecimal.valueOf(i * 100L));
+            card.setCreatedAt(LocalDateTime.now());
+            card.setUser(user);
+            cards.add(card);
+        }
+    }
+
+    @Benchmark
+    public List<CardDto> mapPage() {
+        List<CardDto> page = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            page.add(CardDto.from(card));
+        }
+        return page;
+    }
+}
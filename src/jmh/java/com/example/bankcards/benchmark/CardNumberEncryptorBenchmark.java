@@ -0,0 +1,66 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberEncryptor;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardNumberEncryptorBenchmark {
+
+    private static final String KEY = "HI+CGVOKpbpb/ejYTYXp3oe+Dhevif5eZDI7p4taKjQ=";
+    private static final String CARD_NUMBER = "1691558574739937";
+
+    private CardNumberEncryptor encryptor;
+    private String encrypted;
+    private String legacyEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptor = new CardNumberEncryptor(KEY, 1, "");
+        encrypted = encryptor.convertToDatabaseColumn(CARD_NUMBER);
+        legacyEncrypted = legacyEncrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptor.convertToDatabaseColumn(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptor.convertToEntityAttribute(encrypted);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        return legacyEncrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        byte[] keyBytes = Base64.getDecoder().decode(KEY);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
+        cipher.init(Cipher.DECRYPT_MODE, keySpec);
+        byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(legacyEncrypted));
+        return new String(decryptedBytes);
+    }
+
+    private static String legacyEncrypt(String plainCardNumber) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        byte[] keyBytes = Base64.getDecoder().decode(KEY);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
+        cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+        byte[] encryptedBytes = cipher.doFinal(plainCardNumber.getBytes());
+        return Base64.getEncoder().encodeToString(encryptedBytes);
+    }
+}
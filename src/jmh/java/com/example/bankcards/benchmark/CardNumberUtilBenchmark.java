@@ -0,0 +1,44 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberPermutation;
+import com.example.bankcards.util.CardNumberUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardNumberUtilBenchmark {
+
+    private static final String ISSUING_KEY = "9Xq0r3mJ5bq6fQb8kYdC2n1sQ0h4ZyWc7vT8uLkM3aE=";
+
+    private String cardNumber;
+    private CardNumberPermutation permutation;
+    private long index;
+
+    @Setup
+    public void setUp() {
+        cardNumber = CardNumberUtil.generateCardNumber();
+        permutation = new CardNumberPermutation("220070", Base64.getDecoder().decode(ISSUING_KEY));
+    }
+
+    @Benchmark
+    public String maskCardNumber() {
+        return CardNumberUtil.maskCardNumber(cardNumber);
+    }
+
+    @Benchmark
+    public String generateCardNumber() {
+        return CardNumberUtil.generateCardNumber();
+    }
+
+    @Benchmark
+    public String issueCardNumber() {
+        return permutation.cardNumber(index++ % permutation.capacity());
+    }
+}
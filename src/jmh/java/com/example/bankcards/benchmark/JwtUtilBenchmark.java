@@ -0,0 +1,47 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "vrvqyiaB9WEJ41S6y+Ibd4OzUSa8avi3KJfXB8O32v0=";
+
+    private JwtUtil jwtUtil;
+    private UserDetailsImpl user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, Duration.ofHours(1));
+        user = new UserDetailsImpl(1L, "Иван Иванов", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsername() {
+        return jwtUtil.getUsername(token);
+    }
+}
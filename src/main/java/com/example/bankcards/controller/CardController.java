@@ -1,21 +1,47 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
+import com.example.bankcards.dto.BlockRequestDecision;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.BulkCardIssueRequest;
+import com.example.bankcards.dto.CardBalanceDto;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferDto;
 import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.service.BatchTransferService;
+import com.example.bankcards.service.CardExportService;
+import com.example.bankcards.service.CardIssuanceService;
+import com.example.bankcards.service.CardModerationService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.LedgerService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/cards")
 @RequiredArgsConstructor
 public class CardController {
 
     private final CardService cardService;
+    private final LedgerService ledgerService;
+    private final BatchTransferService batchTransferService;
+    private final CardExportService cardExportService;
+    private final CardIssuanceService cardIssuanceService;
+    private final CardModerationService cardModerationService;
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -25,6 +51,27 @@ public class CardController {
         return ResponseEntity.ok(cardService.getAllCards(page, size));
     }
 
+    @GetMapping(value = "/all", params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<CardDto>> getAllCardsByCursor(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(cardService.getAllCards(cursor, size));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportCards(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        CardExportService.Format exportFormat = CardExportService.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"cards." + exportFormat.getExtension() + "\"");
+        cardExportService.exportCards(exportFormat, response.getOutputStream());
+    }
+
     @GetMapping()
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Page<CardDto>> getUserCards(
@@ -38,17 +85,65 @@ public class CardController {
 
     @PostMapping("/transfer")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<String> transferBetweenCards(@RequestBody TransferRequest request) {
-        cardService.transferBetweenCards(request);
+    public ResponseEntity<String> transferBetweenCards(
+            @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        cardService.transferBetweenCards(request, idempotencyKey);
         return ResponseEntity.ok("Перевод успешно выполнен");
     }
 
+    @PostMapping("/transfers/batch")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BatchTransferResponse> transferBatch(@RequestBody BatchTransferRequest request) {
+        return ResponseEntity.ok(batchTransferService.transfer(request));
+    }
+
+    @GetMapping("/{id}/transfers")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPage<TransferDto>> getCardTransfers(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ledgerService.getCardTransfers(id, cursor, size));
+    }
+
+    @GetMapping("/{id}/balance")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CardBalanceDto> getCardBalanceAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(ledgerService.getBalanceAt(id, at));
+    }
+
     @PostMapping()
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CardDto> createCard(@RequestBody CreateCardRequest request) {
         return ResponseEntity.ok(cardService.createCard(request));
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void issueCards(@RequestBody BulkCardIssueRequest request, HttpServletResponse response) throws IOException {
+        CardIssuanceService.BulkIssue issue = cardIssuanceService.prepare(request);
+        response.setContentType(CardExportService.Format.NDJSON.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        cardIssuanceService.issueCards(issue, response.getOutputStream());
+    }
+
+    @GetMapping("/block-requests")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<BlockRequestDto>> getBlockRequests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(cardModerationService.getBlockRequests(cursor, size));
+    }
+
+    @PostMapping("/block-requests/decisions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BlockRequestDecisionResponse> decideBlockRequests(@RequestBody BlockRequestDecision decision) {
+        return ResponseEntity.ok(cardModerationService.decide(decision));
+    }
+
     @PatchMapping("/{id}/block")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<String> blockCard(@PathVariable Long id) {
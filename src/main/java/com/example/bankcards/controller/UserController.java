@@ -1,13 +1,20 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.dto.UserDeletionStatus;
+import com.example.bankcards.service.UserDeletionService;
 import com.example.bankcards.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/users")
@@ -16,10 +23,23 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserDeletionService userDeletionService;
 
     @GetMapping()
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<UserDto>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String usernamePrefix,
+            @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(userService.getUsers(cursor, size, usernamePrefix, email));
+    }
+
+    @GetMapping("/export")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"");
+        userService.exportUsers(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -33,4 +53,14 @@ public class UserController {
         return ResponseEntity.ok("Пользователь успешно удален");
     }
 
+    @PostMapping("/{id}/deletion")
+    public ResponseEntity<UserDeletionStatus> startUserDeletion(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(userDeletionService.startDeletion(id));
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<UserDeletionStatus> getUserDeletion(@PathVariable Long id) {
+        return ResponseEntity.ok(userDeletionService.getStatus(id));
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockRequestDecision {
+    private List<Long> cardIds;
+    private Action action;
+
+    public enum Action {
+        APPROVE,
+        REJECT
+    }
+}
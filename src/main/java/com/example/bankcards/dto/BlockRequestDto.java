@@ -0,0 +1,15 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BlockRequestDto {
+    private Long cardId;
+    private String number;
+    private String ownerUsername;
+    private LocalDateTime requestedAt;
+}
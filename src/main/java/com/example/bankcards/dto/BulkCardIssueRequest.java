@@ -0,0 +1,10 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCardIssueRequest {
+    private List<BulkCardIssueItem> items;
+}
@@ -1,5 +1,7 @@
 package com.example.bankcards.dto;
+import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.util.CardNumberUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -15,5 +17,17 @@ public class CardDto {
     private BigDecimal balance;
     private LocalDateTime createdAt;
     private String ownerUsername;
+
+    public static CardDto from(Card card) {
+        return new CardDto(
+                card.getId(),
+                CardNumberUtil.maskCardNumber(card.getNumber()),
+                card.getExpirationDate(),
+                card.getStatus(),
+                card.getBalance(),
+                card.getCreatedAt(),
+                card.getUser().getUsername()
+        );
+    }
 }
 
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class TransferLegResult {
+    private int index;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+    private Status status;
+    private Long transferId;
+    private String message;
+
+    public enum Status {
+        APPLIED,
+        REJECTED
+    }
+}
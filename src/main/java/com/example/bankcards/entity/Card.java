@@ -13,14 +13,23 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "cards")
 public class Card {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Convert(converter = CardNumberEncryptor.class)
     @Column(nullable = false)
     private String number;
 
+    @Column(name = "number_hash")
+    private String numberHash;
+
+    @Column(name = "last4_hash")
+    private String last4Hash;
+
     @Column(name = "expiration_date", nullable = false)
     private LocalDateTime expirationDate;
 
@@ -35,6 +44,9 @@ public class Card {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "block_requested_at")
+    private LocalDateTime blockRequestedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,30 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Generated;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "transfers")
+public class Transfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_card_id", nullable = false, updatable = false)
+    private Long fromCardId;
+
+    @Column(name = "to_card_id", nullable = false, updatable = false)
+    private Long toCardId;
+
+    @Column(precision = 15, scale = 2, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Generated
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TransferRejectedException extends IllegalStateException {
+
+    public static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+    public static final String CARD_INACTIVE = "card_inactive";
+    public static final String CARD_EXPIRED = "card_expired";
+    public static final String CONCURRENT_UPDATE = "concurrent_update";
+
+    private final String reason;
+
+    public TransferRejectedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
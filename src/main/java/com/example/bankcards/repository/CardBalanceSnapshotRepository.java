@@ -0,0 +1,33 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CardBalanceSnapshotRepository extends JpaRepository<CardBalanceSnapshot, Long> {
+
+    Optional<CardBalanceSnapshot> findFirstByCardIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(Long cardId, LocalDateTime at);
+
+    Optional<CardBalanceSnapshot> findFirstByCardIdAndCreatedAtGreaterThanOrderByCreatedAtAsc(Long cardId, LocalDateTime at);
+
+    @Query(value = "SELECT id FROM cards WHERE id IN (:cardIds) ORDER BY id FOR SHARE", nativeQuery = true)
+    List<Long> lockCards(@Param("cardIds") List<Long> cardIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO card_balance_snapshots (card_id, balance, last_transfer_id, created_at) " +
+            "SELECT c.id, c.balance, l.last_transfer_id, clock_timestamp() " +
+            "FROM cards c CROSS JOIN LATERAL (SELECT GREATEST(" +
+            "COALESCE((SELECT MAX(t.id) FROM transfers t WHERE t.from_card_id = c.id), 0), " +
+            "COALESCE((SELECT MAX(t.id) FROM transfers t WHERE t.to_card_id = c.id), 0)) AS last_transfer_id) l " +
+            "WHERE c.id IN (:cardIds) AND NOT EXISTS (SELECT 1 FROM card_balance_snapshots s " +
+            "WHERE s.card_id = c.id AND s.last_transfer_id >= l.last_transfer_id)", nativeQuery = true)
+    int snapshotChangedCards(@Param("cardIds") List<Long> cardIds);
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.enums.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface CardBalanceView {
+    Long getId();
+    Long getUserId();
+    CardStatus getStatus();
+    BigDecimal getBalance();
+    LocalDateTime getExpirationDate();
+}
@@ -1,17 +1,134 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
+    String CARD_DTO_SELECT = "select new com.example.bankcards.dto.CardDto(" +
+            "c.id, c.number, c.expirationDate, c.status, c.balance, c.createdAt, u.username) " +
+            "from Card c join c.user u";
+    String BLOCK_REQUEST_SELECT = "select new com.example.bankcards.dto.BlockRequestDto(" +
+            "c.id, c.number, u.username, c.blockRequestedAt) from Card c join c.user u " +
+            "where c.status = com.example.bankcards.entity.enums.CardStatus.BLOCK_REQUESTED";
+
     List<Card> findByUser(User user);
     Page<Card> findByUser(User user, Pageable pageable);
+    List<Card> findTop500ByNumberHashIsNullAndIdGreaterThanOrderById(Long afterId);
+
+    boolean existsByNumberHash(String numberHash);
+
+    @Query("select c.numberHash from Card c where c.numberHash in :numberHashes")
+    List<String> findExistingNumberHashes(@Param("numberHashes") Collection<String> numberHashes);
     Page<Card> findAll(Pageable pageable);
+
+    @Query(value = CARD_DTO_SELECT, countQuery = "select count(c) from Card c")
+    Page<CardDto> findCardDtos(Pageable pageable);
+
+    @Query(value = CARD_DTO_SELECT + " where u.id = :userId",
+            countQuery = "select count(c) from Card c where c.user.id = :userId")
+    Page<CardDto> findCardDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = CARD_DTO_SELECT + " where u.id = :userId and c.last4Hash = :last4Hash",
+            countQuery = "select count(c) from Card c where c.user.id = :userId and c.last4Hash = :last4Hash")
+    Page<CardDto> findCardDtosByUserIdAndLast4Hash(@Param("userId") Long userId, @Param("last4Hash") String last4Hash,
+                                                   Pageable pageable);
+
+    @Query(value = CARD_DTO_SELECT + " where u.id = :userId and c.numberHash = :numberHash",
+            countQuery = "select count(c) from Card c where c.user.id = :userId and c.numberHash = :numberHash")
+    Page<CardDto> findCardDtosByUserIdAndNumberHash(@Param("userId") Long userId, @Param("numberHash") String numberHash,
+                                                    Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CARD_DTO_SELECT + " order by c.id")
+    Stream<CardDto> streamCardDtos();
+
+    @Query(CARD_DTO_SELECT + " order by c.balance desc, c.id desc")
+    List<CardDto> findFirstCardDtosByBalance(Pageable pageable);
+
+    @Query(CARD_DTO_SELECT + " where (c.balance, c.id) < (:balance, :id) order by c.balance desc, c.id desc")
+    List<CardDto> findNextCardDtosByBalance(@Param("balance") BigDecimal balance, @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query(BLOCK_REQUEST_SELECT + " order by c.blockRequestedAt, c.id")
+    List<BlockRequestDto> findFirstBlockRequests(Pageable pageable);
+
+    @Query(BLOCK_REQUEST_SELECT + " and (c.blockRequestedAt, c.id) > (:requestedAt, :id) order by c.blockRequestedAt, c.id")
+    List<BlockRequestDto> findNextBlockRequests(@Param("requestedAt") LocalDateTime requestedAt, @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Modifying
+    @Query("update Card c set c.status = :target, c.blockRequestedAt = null " +
+            "where c.id in :ids and c.status = com.example.bankcards.entity.enums.CardStatus.BLOCK_REQUESTED")
+    int resolveBlockRequests(@Param("ids") Collection<Long> ids, @Param("target") CardStatus target);
+
+    @Query("select c.user.id from Card c where c.id = :id")
+    Optional<Long> findOwnerId(@Param("id") Long id);
+
+    @Query("select c.id from Card c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "select id as \"id\", user_id as \"userId\", status as \"status\", balance as \"balance\", " +
+            "expiration_date as \"expirationDate\" " +
+            "from cards where id in (:ids) order by id for no key update", nativeQuery = true)
+    List<CardBalanceView> lockBalances(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Card c set c.balance = c.balance - :amount " +
+            "where c.id = :id and c.user.id = :userId and c.status = :status and c.balance >= :amount " +
+            "and c.expirationDate > current_timestamp")
+    int debit(@Param("id") Long id, @Param("userId") Long userId,
+              @Param("amount") BigDecimal amount, @Param("status") CardStatus status);
+
+    @Modifying
+    @Query("update Card c set c.balance = c.balance + :amount " +
+            "where c.id = :id and c.user.id = :userId and c.status = :status " +
+            "and c.expirationDate > current_timestamp")
+    int credit(@Param("id") Long id, @Param("userId") Long userId,
+               @Param("amount") BigDecimal amount, @Param("status") CardStatus status);
+
+    @Modifying
+    @Query(value = "update cards set status = 'EXPIRED', block_requested_at = null where id in (" +
+            "select id from cards where status in ('ACTIVE', 'BLOCK_REQUESTED') and expiration_date <= :now " +
+            "order by expiration_date limit :limit for update skip locked)", nativeQuery = true)
+    int expireDueCards(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("select new com.example.bankcards.repository.ExpiryBacklog(count(c), min(c.expirationDate)) from Card c " +
+            "where c.status in (com.example.bankcards.entity.enums.CardStatus.ACTIVE, " +
+            "com.example.bankcards.entity.enums.CardStatus.BLOCK_REQUESTED) and c.expirationDate <= :now")
+    ExpiryBacklog findExpiryBacklog(@Param("now") LocalDateTime now);
+
+    long countByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from Card c where c.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "delete from cards where id in (select id from cards where user_id = :userId limit :limit)",
+            nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
 }
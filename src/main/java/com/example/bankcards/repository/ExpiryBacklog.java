@@ -0,0 +1,6 @@
+package com.example.bankcards.repository;
+
+import java.time.LocalDateTime;
+
+public record ExpiryBacklog(long cards, LocalDateTime oldestExpiration) {
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.security.RefreshTokenState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Query("select new com.example.bankcards.security.RefreshTokenState(" +
+            "t.id, t.userId, u.username, t.familyId, t.createdAt, t.expiresAt, t.usedAt, t.revokedAt) " +
+            "from RefreshToken t join User u on u.id = t.userId where t.tokenHash = :tokenHash")
+    Optional<RefreshTokenState> findStateByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :usedAt " +
+            "where t.id = :id and t.usedAt is null and t.revokedAt is null")
+    int markUsed(@Param("id") Long id, @Param("usedAt") LocalDateTime usedAt);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :revokedAt where t.familyId = :familyId and t.revokedAt is null")
+    int revokeFamily(@Param("familyId") String familyId, @Param("revokedAt") LocalDateTime revokedAt);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :expiresAt")
+    int deleteExpiredBefore(@Param("expiresAt") LocalDateTime expiresAt);
+}
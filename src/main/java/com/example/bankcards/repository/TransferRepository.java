@@ -0,0 +1,37 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Transfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransferRepository extends JpaRepository<Transfer, Long> {
+
+    @Query(value = "(SELECT * FROM transfers WHERE from_card_id = :cardId AND id < :beforeId ORDER BY id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM transfers WHERE to_card_id = :cardId AND id < :beforeId ORDER BY id DESC LIMIT :limit) " +
+            "ORDER BY id DESC LIMIT :limit", nativeQuery = true)
+    List<Transfer> findCardTransfersBefore(@Param("cardId") Long cardId,
+                                           @Param("beforeId") Long beforeId,
+                                           @Param("limit") int limit);
+
+    @Query("select coalesce(sum(case when t.toCardId = :cardId then t.amount else -t.amount end), 0) " +
+            "from Transfer t where (t.fromCardId = :cardId or t.toCardId = :cardId) " +
+            "and t.id > :afterId and t.createdAt <= :at")
+    BigDecimal sumNetAmountAfter(@Param("cardId") Long cardId,
+                                 @Param("afterId") Long afterId,
+                                 @Param("at") LocalDateTime at);
+
+    @Query("select coalesce(sum(case when t.toCardId = :cardId then t.amount else -t.amount end), 0) " +
+            "from Transfer t where (t.fromCardId = :cardId or t.toCardId = :cardId) " +
+            "and t.id <= :upToId and t.createdAt > :at")
+    BigDecimal sumNetAmountSince(@Param("cardId") Long cardId,
+                                 @Param("upToId") Long upToId,
+                                 @Param("at") LocalDateTime at);
+}
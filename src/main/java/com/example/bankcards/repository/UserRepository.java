@@ -1,15 +1,54 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String USER_DTO_SELECT = "select new com.example.bankcards.dto.UserDto(u.id, u.username, u.fullName, u.email) from User u";
+
     Optional<User> findByUsername(String username);
     Optional<User> findById(Long id);
-    Optional<User> deleteByUsername(String username);
     Optional<User> deleteUserById(Long id);
+
+    @Query(USER_DTO_SELECT + " where u.id > :afterId order by u.id")
+    List<UserDto> findUserDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(USER_DTO_SELECT + " where u.username like :pattern escape '!' and u.id > :afterId order by u.id")
+    List<UserDto> findUserDtosByUsernameLike(@Param("pattern") String pattern, @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    @Query(USER_DTO_SELECT + " where u.email = :email")
+    Optional<UserDto> findUserDtoByEmail(@Param("email") String email);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(USER_DTO_SELECT + " order by u.id")
+    Stream<UserDto> streamUserDtos();
+
+    @Query("select u.id from User u where u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query(value = "delete from user_roles where user_id = :userId", nativeQuery = true)
+    int deleteRolesByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "delete from users where id = :id", nativeQuery = true)
+    int deleteRowById(@Param("id") Long id);
 }
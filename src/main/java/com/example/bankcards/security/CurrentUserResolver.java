@@ -0,0 +1,25 @@
+package com.example.bankcards.security;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserIdentityCache userIdentityCache;
+
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails && userDetails.getId() != null) {
+            return userDetails.getId();
+        }
+        String username = authentication.getName();
+        return userIdentityCache.get(username)
+                .map(UserIdentity::id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь %s не найден", username)));
+    }
+}
@@ -1,25 +1,34 @@
 package com.example.bankcards.security;
 
 import com.example.bankcards.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserIdentityCache userIdentityCache;
+
+    @Value("${jwt.stateless}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -30,15 +39,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String jwtToken = authHeader.substring(7);
-        if (!jwtUtil.validateToken(jwtToken)) {
+        Optional<Claims> claims = verifiedTokenCache.getClaims(jwtToken);
+        if (claims.isEmpty()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String username = jwtUtil.getUsername(jwtToken);
+        String username = claims.get().getSubject();
+        Long userId = claims.get().get(JwtUtil.USER_ID_CLAIM, Long.class);
+        if (userId == null && username != null) {
+            userId = userIdentityCache.get(username).map(UserIdentity::id).orElse(null);
+        }
+        if (userId == null || tokenRevocationStore.isRevoked(userId, claims.get().getIssuedAt())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadUserDetails(claims.get(), userId, username);
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails,
                     null,
@@ -48,4 +66,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    @SuppressWarnings("unchecked")
+    private UserDetails loadUserDetails(Claims claims, Long userId, String username) {
+        List<String> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        if (stateless && userId != null && roles != null) {
+            return UserDetailsImpl.fromToken(userId, username, roles);
+        }
+        return userIdentityCache.get(username)
+                .map(UserDetailsImpl::fromIdentity)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        String.format("Пользователь %s не найден", username)
+                ));
+    }
 }
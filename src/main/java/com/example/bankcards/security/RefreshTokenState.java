@@ -0,0 +1,13 @@
+package com.example.bankcards.security;
+
+import java.time.LocalDateTime;
+
+public record RefreshTokenState(Long id,
+                                Long userId,
+                                String username,
+                                String familyId,
+                                LocalDateTime createdAt,
+                                LocalDateTime expiresAt,
+                                LocalDateTime usedAt,
+                                LocalDateTime revokedAt) {
+}
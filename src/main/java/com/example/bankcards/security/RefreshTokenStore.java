@@ -0,0 +1,142 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+@Component
+@Slf4j
+public class RefreshTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, RefreshTokenState> cache;
+    private final Counter reuseDetected;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             TokenRevocationStore tokenRevocationStore,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.refresh.expiration}") Duration ttl,
+                             @Value("${jwt.refresh.cache.max-size}") long maxSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.reuseDetected = meterRegistry.counter("jwt.refresh-tokens.reuse");
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "refresh-tokens");
+    }
+
+    public String issue(Long userId, String username) {
+        return issue(userId, username, UUID.randomUUID().toString());
+    }
+
+    public Rotation rotate(String rawToken) {
+        String tokenHash = hash(rawToken);
+        RefreshTokenState state = cache.getIfPresent(tokenHash);
+        if (state == null) {
+            state = refreshTokenRepository.findStateByTokenHash(tokenHash)
+                    .orElseThrow(() -> new BadCredentialsException("Недействительный refresh-токен"));
+        }
+        cache.invalidate(tokenHash);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (state.revokedAt() != null) {
+            throw new BadCredentialsException("Refresh-токен отозван");
+        }
+        if (!state.expiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Срок действия refresh-токена истёк");
+        }
+        if (tokenRevocationStore.isRevoked(state.userId(), Timestamp.valueOf(state.createdAt()))) {
+            throw new BadCredentialsException("Сессия пользователя отозвана");
+        }
+
+        RefreshTokenState current = state;
+        String next = transactionTemplate.execute(status -> refreshTokenRepository.markUsed(current.id(), now) == 1
+                ? issue(current.userId(), current.username(), current.familyId())
+                : null);
+        if (next == null) {
+            boolean reused = refreshTokenRepository.findStateByTokenHash(tokenHash)
+                    .map(fresh -> fresh.usedAt() != null)
+                    .orElse(false);
+            if (!reused) {
+                throw new BadCredentialsException("Refresh-токен отозван");
+            }
+            transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.revokeFamily(current.familyId(), now));
+            reuseDetected.increment();
+            log.warn("Повторное использование refresh-токена пользователя {}, сессия {} отозвана",
+                    current.userId(), current.familyId());
+            throw new BadCredentialsException("Refresh-токен уже использован, сессия отозвана");
+        }
+        return new Rotation(current, next);
+    }
+
+    @Scheduled(cron = "${jwt.refresh.cleanup-cron}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        log.info("Удалено {} просроченных refresh-токенов", deleted);
+    }
+
+    private String issue(Long userId, String username, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setFamilyId(familyId);
+        token.setTokenHash(hash(rawToken));
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(ttl));
+        token = refreshTokenRepository.save(token);
+
+        cache.put(token.getTokenHash(), new RefreshTokenState(token.getId(), userId, username, familyId,
+                token.getCreatedAt(), token.getExpiresAt(), null, null));
+        return rawToken;
+    }
+
+    public record Rotation(RefreshTokenState previous, String refreshToken) {
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class TokenRevocationStore {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Duration jwtExpiration;
+    private final Map<Long, LocalDateTime> revocations = new ConcurrentHashMap<>();
+
+    public TokenRevocationStore(TokenRevocationRepository tokenRevocationRepository,
+                                @Value("${jwt.expiration}") Duration jwtExpiration) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.jwtExpiration = jwtExpiration;
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        LocalDateTime revokedAt = revocations.get(userId);
+        if (revokedAt == null) {
+            return false;
+        }
+        return issuedAt == null || LocalDateTime.ofInstant(issuedAt.toInstant(), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.SECONDS)
+                .isBefore(revokedAt);
+    }
+
+    public void revoke(Long userId) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        tokenRevocationRepository.save(new TokenRevocation(userId, now));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, now);
+                }
+            });
+        } else {
+            publish(userId, now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval}")
+    public void refresh() {
+        LocalDateTime threshold = LocalDateTime.now().minus(jwtExpiration);
+        tokenRevocationRepository.findByRevokedAtAfter(threshold)
+                .forEach(revocation -> publish(revocation.getUserId(), revocation.getRevokedAt()));
+        revocations.values().removeIf(revokedAt -> revokedAt.isBefore(threshold));
+        log.debug("Загружено {} отзывов токенов", revocations.size());
+    }
+
+    private void publish(Long userId, LocalDateTime revokedAt) {
+        LocalDateTime truncated = revokedAt.truncatedTo(ChronoUnit.SECONDS);
+        revocations.merge(userId, truncated, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+}
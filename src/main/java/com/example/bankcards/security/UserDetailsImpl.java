@@ -1,33 +1,47 @@
 package com.example.bankcards.security;
 
 import com.example.bankcards.entity.User;
-import lombok.RequiredArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
-@RequiredArgsConstructor
+@Getter
+@AllArgsConstructor
 public class UserDetailsImpl implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final Collection<? extends GrantedAuthority> authorities;
 
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+    public UserDetailsImpl(User user) {
+        this(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority(role.getName()))
+                        .toList()
+        );
     }
 
-    @Override
-    public String getPassword() {
-        return user.getPassword();
+    public static UserDetailsImpl fromIdentity(UserIdentity identity) {
+        return fromToken(identity.id(), identity.username(), identity.roles());
     }
 
-    @Override
-    public String getUsername() {
-        return user.getUsername();
+    public static UserDetailsImpl fromToken(Long id, String username, List<String> roles) {
+        return new UserDetailsImpl(
+                id,
+                username,
+                null,
+                roles.stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList()
+        );
     }
 }
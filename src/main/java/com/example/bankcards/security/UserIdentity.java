@@ -0,0 +1,19 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+
+import java.util.List;
+
+public record UserIdentity(Long id, String username, List<String> roles) {
+
+    public static UserIdentity from(User user) {
+        return new UserIdentity(
+                user.getId(),
+                user.getUsername(),
+                user.getRoles().stream()
+                        .map(Role::getName)
+                        .toList()
+        );
+    }
+}
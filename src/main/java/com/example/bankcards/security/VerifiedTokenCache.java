@@ -0,0 +1,58 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, Claims> cache;
+    private final MeterRegistry meterRegistry;
+    private final Timer validTokens;
+    private final Timer invalidTokens;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String token, Claims claims) -> timeToLive(claims)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+        this.meterRegistry = meterRegistry;
+        this.validTokens = meterRegistry.timer("jwt.verify", "result", "valid");
+        this.invalidTokens = meterRegistry.timer("jwt.verify", "result", "invalid");
+    }
+
+    public Optional<Claims> getClaims(String token) {
+        Claims cached = cache.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Optional<Claims> claims = jwtUtil.parseClaims(token);
+        sample.stop(claims.isPresent() ? validTokens : invalidTokens);
+        claims.filter(parsed -> parsed.getExpiration() != null)
+                .ifPresent(parsed -> cache.put(token, parsed));
+        return claims;
+    }
+
+    private static Duration timeToLive(Claims claims) {
+        long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(millis, 0));
+    }
+}
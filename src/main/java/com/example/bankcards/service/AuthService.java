@@ -2,14 +2,18 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.AuthRequest;
 import com.example.bankcards.dto.AuthResponse;
+import com.example.bankcards.dto.RefreshRequest;
+import com.example.bankcards.security.RefreshTokenStore;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.security.UserIdentity;
+import com.example.bankcards.security.UserIdentityCache;
 import com.example.bankcards.util.JwtUtil;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,11 +22,26 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserIdentityCache userIdentityCache;
 
-    @Transactional
     public ResponseEntity<?> authenticateUser(AuthRequest authRequest) {
         Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword()));
-        String token = jwtUtil.generateToken((UserDetails) authentication.getPrincipal());
-        return ResponseEntity.ok(new AuthResponse(token));
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        String token = jwtUtil.generateToken(userDetails);
+        String refreshToken = refreshTokenStore.issue(userDetails.getId(), userDetails.getUsername());
+        return ResponseEntity.ok(new AuthResponse(token, refreshToken));
+    }
+
+    public AuthResponse refresh(RefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            throw new BadCredentialsException("Не передан refresh-токен");
+        }
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(request.getRefreshToken());
+        UserIdentity identity = userIdentityCache.get(rotation.previous().username())
+                .filter(user -> user.id().equals(rotation.previous().userId()))
+                .orElseThrow(() -> new BadCredentialsException("Пользователь не найден"));
+        String token = jwtUtil.generateToken(UserDetailsImpl.fromIdentity(identity));
+        return new AuthResponse(token, rotation.refreshToken());
     }
 }
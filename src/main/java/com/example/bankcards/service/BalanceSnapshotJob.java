@@ -0,0 +1,46 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardBalanceSnapshotRepository;
+import com.example.bankcards.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceSnapshotJob {
+
+    private final CardRepository cardRepository;
+    private final CardBalanceSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ledger.snapshot.chunk-size}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${ledger.snapshot.cron}")
+    public void takeSnapshots() {
+        long afterId = 0;
+        int created = 0;
+        List<Long> cardIds;
+        do {
+            cardIds = cardRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            List<Long> chunk = cardIds;
+            created += transactionTemplate.execute(status -> {
+                snapshotRepository.lockCards(chunk);
+                return snapshotRepository.snapshotChangedCards(chunk);
+            });
+            afterId = cardIds.get(cardIds.size() - 1);
+        } while (cardIds.size() == chunkSize);
+        log.info("Создано {} снимков баланса карт", created);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
+import com.example.bankcards.dto.TransferLegResult;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.TransferRejectedException;
+import com.example.bankcards.repository.CardBalanceView;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.security.CurrentUserResolver;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Service
+@RequiredArgsConstructor
+public class BatchTransferService {
+
+    private static final String APPLY_DELTA_SQL = "update cards set balance = balance + ? where id = ?";
+    private static final String INSERT_TRANSFER_SQL =
+            "insert into transfers (from_card_id, to_card_id, amount) values (?, ?, ?)";
+
+    private final CardRepository cardRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferMetrics transferMetrics;
+
+    @Value("${transfers.batch.max-size}")
+    private int maxBatchSize;
+
+    @Transactional
+    public BatchTransferResponse transfer(BatchTransferRequest request) {
+        return transferMetrics.record(TransferMetrics.BATCH, () -> execute(request));
+    }
+
+    private BatchTransferResponse execute(BatchTransferRequest request) {
+        List<TransferRequest> legs = request.getTransfers();
+        validate(legs);
+        Long userId = currentUserResolver.getCurrentUserId();
+
+        TreeSet<Long> cardIds = new TreeSet<>();
+        for (TransferRequest leg : legs) {
+            cardIds.add(leg.getFromCardId());
+            cardIds.add(leg.getToCardId());
+        }
+        Map<Long, CardBalanceView> cards = new HashMap<>();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (CardBalanceView card : cardRepository.lockBalances(cardIds)) {
+            cards.put(card.getId(), card);
+            balances.put(card.getId(), card.getBalance());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TransferLegResult[] results = new TransferLegResult[legs.size()];
+        List<Integer> applied = new ArrayList<>();
+        TreeMap<Long, BigDecimal> deltas = new TreeMap<>();
+        for (int i = 0; i < legs.size(); i++) {
+            TransferRequest leg = legs.get(i);
+            Rejection rejection = checkLeg(userId, leg, cards, balances, now);
+            if (rejection != null) {
+                results[i] = result(i, leg, TransferLegResult.Status.REJECTED, null, rejection.message());
+                transferMetrics.failed(TransferMetrics.BATCH, rejection.reason());
+                continue;
+            }
+            balances.merge(leg.getFromCardId(), leg.getAmount().negate(), BigDecimal::add);
+            balances.merge(leg.getToCardId(), leg.getAmount(), BigDecimal::add);
+            deltas.merge(leg.getFromCardId(), leg.getAmount().negate(), BigDecimal::add);
+            deltas.merge(leg.getToCardId(), leg.getAmount(), BigDecimal::add);
+            applied.add(i);
+        }
+
+        applyDeltas(deltas);
+        List<Long> transferIds = insertTransfers(legs, applied);
+        for (int i = 0; i < applied.size(); i++) {
+            int index = applied.get(i);
+            results[index] = result(index, legs.get(index), TransferLegResult.Status.APPLIED, transferIds.get(i), null);
+        }
+        transferMetrics.succeeded(TransferMetrics.BATCH, applied.size());
+
+        return new BatchTransferResponse(applied.size(), legs.size() - applied.size(), List.of(results));
+    }
+
+    private void validate(List<TransferRequest> legs) {
+        if (legs == null || legs.isEmpty()) {
+            throw new IllegalArgumentException("Пакет переводов пуст");
+        }
+        if (legs.size() > maxBatchSize) {
+            throw new IllegalArgumentException(String.format("Пакет не может содержать больше %d переводов", maxBatchSize));
+        }
+        for (int i = 0; i < legs.size(); i++) {
+            TransferRequest leg = legs.get(i);
+            if (leg == null || leg.getFromCardId() == null || leg.getToCardId() == null) {
+                throw new IllegalArgumentException(String.format("Перевод %d: не указаны карты", i));
+            }
+            if (leg.getAmount() == null || leg.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException(String.format("Перевод %d: сумма перевода должна быть положительной", i));
+            }
+            if (leg.getFromCardId().equals(leg.getToCardId())) {
+                throw new IllegalArgumentException(String.format("Перевод %d: карта-отправитель и карта-получатель совпадают", i));
+            }
+        }
+    }
+
+    private static Rejection checkLeg(Long userId, TransferRequest leg, Map<Long, CardBalanceView> cards,
+                                      Map<Long, BigDecimal> balances, LocalDateTime now) {
+        Rejection fromRejection = checkCard(userId, cards.get(leg.getFromCardId()), leg.getFromCardId(), "Карта-отправитель", now);
+        if (fromRejection != null) {
+            return fromRejection;
+        }
+        Rejection toRejection = checkCard(userId, cards.get(leg.getToCardId()), leg.getToCardId(), "Карта-получатель", now);
+        if (toRejection != null) {
+            return toRejection;
+        }
+        if (balances.get(leg.getFromCardId()).compareTo(leg.getAmount()) < 0) {
+            return new Rejection(TransferRejectedException.INSUFFICIENT_FUNDS, "Недостаточно средств на карте-источнике");
+        }
+        return null;
+    }
+
+    private static Rejection checkCard(Long userId, CardBalanceView card, Long cardId, String cardRole,
+                                       LocalDateTime now) {
+        if (card == null) {
+            return new Rejection(TransferMetrics.CARD_NOT_FOUND, String.format("%s с id %d не найдена", cardRole, cardId));
+        }
+        if (!card.getUserId().equals(userId)) {
+            return new Rejection(TransferMetrics.ACCESS_DENIED, "Перевод доступен только между своими картами");
+        }
+        if (card.getStatus() != CardStatus.ACTIVE) {
+            return new Rejection(TransferRejectedException.CARD_INACTIVE, String.format("%s с id %d неактивна", cardRole, cardId));
+        }
+        if (!card.getExpirationDate().isAfter(now)) {
+            return new Rejection(TransferRejectedException.CARD_EXPIRED,
+                    String.format("%s с id %d просрочена", cardRole, cardId));
+        }
+        return null;
+    }
+
+    private void applyDeltas(TreeMap<Long, BigDecimal> deltas) {
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((cardId, delta) -> {
+            if (delta.signum() != 0) {
+                updates.add(new Object[]{delta, cardId});
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, updates);
+        }
+    }
+
+    private List<Long> insertTransfers(List<TransferRequest> legs, List<Integer> applied) {
+        if (applied.isEmpty()) {
+            return List.of();
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_TRANSFER_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TransferRequest leg = legs.get(applied.get(i));
+                        ps.setLong(1, leg.getFromCardId());
+                        ps.setLong(2, leg.getToCardId());
+                        ps.setBigDecimal(3, leg.getAmount());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return applied.size();
+                    }
+                },
+                keyHolder);
+        List<Long> ids = new ArrayList<>(applied.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.get("id")).longValue());
+        }
+        return ids;
+    }
+
+    private static TransferLegResult result(int index, TransferRequest leg, TransferLegResult.Status status,
+                                            Long transferId, String message) {
+        return new TransferLegResult(index, leg.getFromCardId(), leg.getToCardId(), leg.getAmount(),
+                status, transferId, message);
+    }
+
+    private record Rejection(String reason, String message) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.ExpiryBacklog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class CardExpiryJob {
+
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Counter expired;
+    private final Timer runs;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public CardExpiryJob(CardRepository cardRepository,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${cards.expiry.chunk-size}") int chunkSize,
+                         @Value("${cards.expiry.max-chunks-per-run}") int maxChunks) {
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.expired = meterRegistry.counter("cards.expiry.expired");
+        this.runs = meterRegistry.timer("cards.expiry.run");
+        meterRegistry.gauge("cards.expiry.backlog", backlog);
+        meterRegistry.gauge("cards.expiry.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(cron = "${cards.expiry.cron}")
+    public void sweep() {
+        runs.record(this::expireDueCards);
+    }
+
+    int expireDueCards() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int chunks = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> cardRepository.expireDueCards(now, chunkSize));
+            expired.increment(updated);
+            total += updated;
+            chunks++;
+        } while (updated == chunkSize && chunks < maxChunks);
+
+        ExpiryBacklog remaining = cardRepository.findExpiryBacklog(now);
+        backlog.set(remaining.cards());
+        lagSeconds.set(remaining.oldestExpiration() == null ? 0
+                : Duration.between(remaining.oldestExpiration(), now).toSeconds());
+        if (total > 0 || remaining.cards() > 0) {
+            log.info("Просрочено карт: {}, осталось к обработке: {}", total, remaining.cards());
+        }
+        return total;
+    }
+}
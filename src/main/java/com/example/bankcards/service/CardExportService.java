@@ -0,0 +1,100 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardExportService {
+
+    private static final String CSV_HEADER = "id,number,expirationDate,status,balance,createdAt,ownerUsername";
+
+    private final CardRepository cardRepository;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Неподдерживаемый формат выгрузки: %s", value));
+            }
+        }
+    }
+
+    @Transactional
+    public long exportCards(Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long exported = 0;
+        try (Stream<CardDto> cards = cardRepository.streamCardDtos()) {
+            for (CardDto card : (Iterable<CardDto>) cards::iterator) {
+                card.setNumber(CardNumberUtil.maskCardNumber(card.getNumber()));
+                if (format == Format.CSV) {
+                    writeCsv(writer, card);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(card));
+                }
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+        log.info("Выгружено {} карт в формате {}", exported, format);
+        return exported;
+    }
+
+    private static void writeCsv(Writer writer, CardDto card) throws IOException {
+        writer.write(String.valueOf(card.getId()));
+        writer.write(',');
+        writer.write(card.getNumber());
+        writer.write(',');
+        writer.write(String.valueOf(card.getExpirationDate()));
+        writer.write(',');
+        writer.write(card.getStatus().name());
+        writer.write(',');
+        writer.write(card.getBalance().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(card.getCreatedAt()));
+        writer.write(',');
+        writer.write(csvField(card.getOwnerUsername()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
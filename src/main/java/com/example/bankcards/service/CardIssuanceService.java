@@ -0,0 +1,232 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCardIssueItem;
+import com.example.bankcards.dto.BulkCardIssueRequest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardIssuanceService {
+
+    private static final String RESERVE_IDS_SQL = "select nextval('cards_seq') from generate_series(1, ?)";
+    private static final String FIND_TAKEN_HASHES_SQL = "select number_hash from cards where number_hash = any(?)";
+    private static final String INSERT_CARD_SQL = "insert into cards " +
+            "(id, number, number_hash, last4_hash, expiration_date, status, balance, created_at, user_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final CardNumberIssuer cardNumberIssuer;
+    private final CardNumberEncryptor cardNumberEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cards.issuing.bulk.max-size}")
+    private int maxBulkSize;
+
+    @Value("${cards.issuing.bulk.chunk-size}")
+    private int chunkSize;
+
+    public BulkIssue prepare(BulkCardIssueRequest request) {
+        List<BulkCardIssueItem> items = request.getItems();
+        int total = validate(items);
+        Map<Long, String> owners = loadOwners(items);
+
+        long[] ownerIds = new long[total];
+        BigDecimal[] balances = new BigDecimal[total];
+        int position = 0;
+        for (BulkCardIssueItem item : items) {
+            BigDecimal balance = item.getStartBalance() == null ? BigDecimal.ZERO : item.getStartBalance();
+            for (int i = 0; i < item.getCount(); i++, position++) {
+                ownerIds[position] = item.getUserId();
+                balances[position] = balance;
+            }
+        }
+        return new BulkIssue(ownerIds, balances, owners);
+    }
+
+    public long issueCards(BulkIssue issue, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expirationDate = now.plusYears(4);
+        int total = issue.ownerIds.length;
+        long issued = 0;
+        for (int from = 0; from < total; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + chunkSize, total);
+            List<CardDto> cards = transactionTemplate.execute(status ->
+                    issueChunk(issue, chunkFrom, chunkTo, expirationDate, now));
+            for (CardDto card : cards) {
+                writer.write(objectMapper.writeValueAsString(card));
+                writer.write('\n');
+            }
+            writer.flush();
+            issued += cards.size();
+        }
+        log.info("Выпущено {} карт для {} пользователей", issued, issue.owners.size());
+        return issued;
+    }
+
+    private List<CardDto> issueChunk(BulkIssue issue, int from, int to, LocalDateTime expirationDate,
+                                     LocalDateTime now) {
+        int count = to - from;
+        long[] ownerIds = Arrays.copyOfRange(issue.ownerIds, from, to);
+        BigDecimal[] balances = Arrays.copyOfRange(issue.balances, from, to);
+        List<Long> ids = reserveIds(count);
+        List<IssuedNumber> numbers = issueNumbers(count);
+        insertCards(ids, numbers, ownerIds, balances, expirationDate, now);
+        List<CardDto> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(new CardDto(ids.get(i), CardNumberUtil.maskCardNumber(numbers.get(i).number()),
+                    expirationDate, CardStatus.ACTIVE, balances[i], now, issue.owners.get(ownerIds[i])));
+        }
+        return cards;
+    }
+
+    private int validate(List<BulkCardIssueItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Список выпускаемых карт пуст");
+        }
+        long total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            BulkCardIssueItem item = items.get(i);
+            if (item == null || item.getUserId() == null) {
+                throw new IllegalArgumentException(String.format("Позиция %d: не указан пользователь", i));
+            }
+            if (item.getCount() < 1) {
+                throw new IllegalArgumentException(String.format("Позиция %d: количество карт должно быть положительным", i));
+            }
+            if (item.getStartBalance() != null && item.getStartBalance().compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Позиция %d: начальный баланс карты не может быть отрицательным", i));
+            }
+            total += item.getCount();
+        }
+        if (total > maxBulkSize) {
+            throw new IllegalArgumentException(String.format("За один запрос можно выпустить не больше %d карт", maxBulkSize));
+        }
+        return (int) total;
+    }
+
+    private Map<Long, String> loadOwners(List<BulkCardIssueItem> items) {
+        Set<Long> userIds = new TreeSet<>();
+        items.forEach(item -> userIds.add(item.getUserId()));
+        Map<Long, String> owners = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            owners.put(user.getId(), user.getUsername());
+        }
+        userIds.removeAll(owners.keySet());
+        if (!userIds.isEmpty()) {
+            throw new EntityNotFoundException(String.format("Пользователи с id %s не найдены", userIds));
+        }
+        return owners;
+    }
+
+    private List<Long> reserveIds(int count) {
+        int blocks = (count + Card.ID_ALLOCATION_SIZE - 1) / Card.ID_ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * Card.ID_ALLOCATION_SIZE);
+        for (Long high : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, blocks)) {
+            for (long id = high - Card.ID_ALLOCATION_SIZE + 1; id <= high; id++) {
+                ids.add(id);
+            }
+        }
+        return ids.subList(0, count);
+    }
+
+    private List<IssuedNumber> issueNumbers(int count) {
+        List<IssuedNumber> numbers = new ArrayList<>(encrypt(cardNumberIssuer.allocate(count)));
+        Set<String> taken = findTakenHashes(numbers);
+        while (!taken.isEmpty()) {
+            for (int i = 0; i < numbers.size(); i++) {
+                if (taken.contains(numbers.get(i).numberHash())) {
+                    numbers.set(i, encrypt(List.of(cardNumberIssuer.next())).get(0));
+                }
+            }
+            taken = findTakenHashes(numbers);
+        }
+        return numbers;
+    }
+
+    private List<IssuedNumber> encrypt(List<String> numbers) {
+        return numbers.parallelStream()
+                .map(number -> new IssuedNumber(number, cardNumberEncryptor.convertToDatabaseColumn(number),
+                        cardNumberHasher.hashNumber(number), cardNumberHasher.hashLastDigits(number)))
+                .toList();
+    }
+
+    private Set<String> findTakenHashes(List<IssuedNumber> numbers) {
+        String[] hashes = numbers.stream().map(IssuedNumber::numberHash).toArray(String[]::new);
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_TAKEN_HASHES_SQL, String.class, (Object) hashes));
+    }
+
+    private void insertCards(List<Long> ids, List<IssuedNumber> numbers, long[] ownerIds, BigDecimal[] balances,
+                             LocalDateTime expirationDate, LocalDateTime createdAt) {
+        Timestamp expiration = Timestamp.valueOf(expirationDate);
+        Timestamp created = Timestamp.valueOf(createdAt);
+        List<Integer> rows = IntStream.range(0, ids.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_CARD_SQL, rows, INSERT_BATCH_SIZE, (ps, i) -> {
+            IssuedNumber number = numbers.get(i);
+            ps.setLong(1, ids.get(i));
+            ps.setString(2, number.encrypted());
+            ps.setString(3, number.numberHash());
+            ps.setString(4, number.last4Hash());
+            ps.setTimestamp(5, expiration);
+            ps.setString(6, CardStatus.ACTIVE.name());
+            ps.setBigDecimal(7, balances[i]);
+            ps.setTimestamp(8, created);
+            ps.setLong(9, ownerIds[i]);
+        });
+    }
+
+    public static final class BulkIssue {
+        private final long[] ownerIds;
+        private final BigDecimal[] balances;
+        private final Map<Long, String> owners;
+
+        private BulkIssue(long[] ownerIds, BigDecimal[] balances, Map<Long, String> owners) {
+            this.ownerIds = ownerIds;
+            this.balances = balances;
+            this.owners = owners;
+        }
+    }
+
+    private record IssuedNumber(String number, String encrypted, String numberHash, String last4Hash) {
+    }
+}
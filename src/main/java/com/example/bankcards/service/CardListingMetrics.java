@@ -0,0 +1,32 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.util.CardNumberEncryptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class CardListingMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final CardNumberEncryptor cardNumberEncryptor;
+
+    public <T> T record(String listing, Supplier<T> query) {
+        cardNumberEncryptor.drainDecryptNanos();
+        long started = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            long total = System.nanoTime() - started;
+            long decrypt = cardNumberEncryptor.drainDecryptNanos();
+            meterRegistry.timer("bank.card-listing", "listing", listing, "phase", "db")
+                    .record(Math.max(total - decrypt, 0), TimeUnit.NANOSECONDS);
+            meterRegistry.timer("bank.card-listing", "listing", listing, "phase", "decrypt")
+                    .record(decrypt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BlockRequestDecision;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberUtil;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardModerationService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_DECISION_SIZE = 1000;
+    private static final String CURSOR_SEPARATOR = ",";
+
+    private final CardRepository cardRepository;
+
+    public CursorPage<BlockRequestDto> getBlockRequests(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        Pageable limit = PageRequest.ofSize(size);
+        List<BlockRequestDto> requests;
+        if (cursor == null || cursor.isBlank()) {
+            requests = cardRepository.findFirstBlockRequests(limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            requests = cardRepository.findNextBlockRequests(LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+        String nextCursor = requests.size() < size ? null : encodeCursor(requests.get(requests.size() - 1));
+        requests.forEach(request -> request.setNumber(CardNumberUtil.maskCardNumber(request.getNumber())));
+        return new CursorPage<>(requests, nextCursor);
+    }
+
+    @Transactional
+    public BlockRequestDecisionResponse decide(BlockRequestDecision decision) {
+        if (decision.getAction() == null) {
+            throw new IllegalArgumentException("Не указано решение по запросам на блокировку");
+        }
+        List<Long> cardIds = decision.getCardIds();
+        if (cardIds == null || cardIds.isEmpty()) {
+            throw new IllegalArgumentException("Список карт пуст");
+        }
+        Set<Long> ids = cardIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (ids.size() > MAX_DECISION_SIZE) {
+            throw new IllegalArgumentException(String.format("За один запрос можно обработать не больше %d карт", MAX_DECISION_SIZE));
+        }
+        CardStatus target = decision.getAction() == BlockRequestDecision.Action.APPROVE ? CardStatus.BLOCKED : CardStatus.ACTIVE;
+        int updated = ids.isEmpty() ? 0 : cardRepository.resolveBlockRequests(ids, target);
+        log.info("Запросы на блокировку: решение {}, карт {}, обработано {}", decision.getAction(), ids.size(), updated);
+        return new BlockRequestDecisionResponse(ids.size(), updated);
+    }
+
+    private static String encodeCursor(BlockRequestDto request) {
+        String position = request.getRequestedAt() + CURSOR_SEPARATOR + request.getCardId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = position.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+}
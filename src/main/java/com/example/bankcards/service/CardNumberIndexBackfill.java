@@ -0,0 +1,77 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardNumberIndexBackfill {
+
+    private final CardRepository cardRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int filled = 0;
+        int skipped = 0;
+        Long afterId = 0L;
+        List<Card> cards;
+        do {
+            Long from = afterId;
+            cards = transactionTemplate.execute(status -> fillNextChunk(from));
+            for (Card card : cards) {
+                if (card.getNumberHash() == null) {
+                    skipped++;
+                } else {
+                    filled++;
+                }
+                afterId = card.getId();
+            }
+        } while (!cards.isEmpty());
+        if (filled > 0) {
+            log.info("Заполнен поисковый индекс номеров для {} карт", filled);
+        }
+        if (skipped > 0) {
+            log.warn("Поисковый индекс не заполнен для {} карт с повторяющимися номерами", skipped);
+        }
+    }
+
+    private List<Card> fillNextChunk(Long afterId) {
+        List<Card> cards = cardRepository.findTop500ByNumberHashIsNullAndIdGreaterThanOrderById(afterId);
+        if (cards.isEmpty()) {
+            return cards;
+        }
+        Map<String, Card> cardsByHash = new LinkedHashMap<>();
+        for (Card card : cards) {
+            cardsByHash.putIfAbsent(cardNumberHasher.hashNumber(card.getNumber()), card);
+        }
+        Set<String> taken = new HashSet<>(cardRepository.findExistingNumberHashes(cardsByHash.keySet()));
+        cardsByHash.forEach((numberHash, card) -> {
+            if (!taken.contains(numberHash)) {
+                card.setNumberHash(numberHash);
+                card.setLast4Hash(cardNumberHasher.hashLastDigits(card.getNumber()));
+            }
+        });
+        for (Card card : cards) {
+            if (card.getNumberHash() == null) {
+                log.warn("Карта с id {} пропущена: номер совпадает с номером другой карты", card.getId());
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.util.CardNumberPermutation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+
+@Component
+public class CardNumberIssuer {
+
+    private static final String RESERVE_SQL = "select nextval('card_number_seq') - 1 from generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardNumberPermutation permutation;
+    private final int blockSize;
+    private final Deque<Long> reserved = new ArrayDeque<>();
+
+    public CardNumberIssuer(JdbcTemplate jdbcTemplate,
+                            @Value("${cards.issuing.bin}") String bin,
+                            @Value("${cards.issuing.key}") String key,
+                            @Value("${cards.issuing.block-size}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Размер блока номеров карт должен быть положительным");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.permutation = new CardNumberPermutation(bin, Base64.getDecoder().decode(key));
+        this.blockSize = blockSize;
+    }
+
+    public String next() {
+        return permutation.cardNumber(nextIndex());
+    }
+
+    public List<String> allocate(int count) {
+        return reserve(count).parallelStream()
+                .map(permutation::cardNumber)
+                .toList();
+    }
+
+    private synchronized long nextIndex() {
+        if (reserved.isEmpty()) {
+            reserved.addAll(reserve(blockSize));
+        }
+        return reserved.poll();
+    }
+
+    private List<Long> reserve(int count) {
+        return jdbcTemplate.queryForList(RESERVE_SQL, Long.class, count);
+    }
+}
@@ -2,12 +2,18 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transfer;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.TransferRejectedException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.CurrentUserResolver;
+import com.example.bankcards.util.CardNumberHasher;
 import com.example.bankcards.util.CardNumberUtil;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -15,11 +21,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Service
@@ -27,78 +34,165 @@ import java.util.List;
 @Slf4j
 public class CardService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = ":";
+
     private final UserRepository userRepository;
     private final CardRepository  cardRepository;
+    private final TransferRepository transferRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final CurrentUserResolver currentUserResolver;
+    private final IdempotencyService idempotencyService;
+    private final TransferMetrics transferMetrics;
+    private final CardListingMetrics cardListingMetrics;
+    private final CardNumberIssuer cardNumberIssuer;
 
     public Page<CardDto> getAllCards(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("balance").descending());
-        return cardRepository.findAll(pageable)
-                .map(card -> new CardDto(
-                        card.getId(),
-                        CardNumberUtil.maskCardNumber(card.getNumber()),
-                        card.getExpirationDate(),
-                        card.getStatus(),
-                        card.getBalance(),
-                        card.getCreatedAt(),
-                        card.getUser().getUsername()
-                ));
+        return cardListingMetrics.record("all", () -> cardRepository.findCardDtos(pageable))
+                .map(this::maskNumber);
+    }
+
+    public CursorPage<CardDto> getAllCards(String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Размер страницы должен быть от 1 до %d", MAX_CURSOR_PAGE_SIZE));
+        }
+        Pageable limit = PageRequest.ofSize(size);
+        List<CardDto> cards;
+        if (cursor == null || cursor.isBlank()) {
+            cards = cardListingMetrics.record("all-cursor", () -> cardRepository.findFirstCardDtosByBalance(limit));
+        } else {
+            String[] position = decodeBalanceCursor(cursor);
+            cards = cardListingMetrics.record("all-cursor", () -> cardRepository.findNextCardDtosByBalance(
+                    new BigDecimal(position[0]), Long.valueOf(position[1]), limit));
+        }
+        String nextCursor = cards.size() < size ? null : encodeBalanceCursor(cards.get(cards.size() - 1));
+        cards.forEach(this::maskNumber);
+        return new CursorPage<>(cards, nextCursor);
+    }
+
+    private static String encodeBalanceCursor(CardDto card) {
+        String position = card.getBalance().toPlainString() + CURSOR_SEPARATOR + card.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String[] decodeBalanceCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = position.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+            new BigDecimal(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
     }
 
     public Page<CardDto> getUserCards(int page, int size, String numberFilter) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь %s не найден", username)));
+        Long userId = currentUserResolver.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        List<CardDto> cardsList = cardRepository.findByUser(user)
-                .stream()
-                .filter(card -> card.getNumber().contains(numberFilter))
-                .map(card -> new CardDto(
-                        card.getId(),
-                        CardNumberUtil.maskCardNumber(card.getNumber()),
-                        card.getExpirationDate(),
-                        card.getStatus(),
-                        card.getBalance(),
-                        card.getCreatedAt(),
-                        card.getUser().getUsername()
-                ))
-                .toList();
-        return new PageImpl<>(cardsList, pageable, cardsList.size());
+        return cardListingMetrics.record("user", () -> findUserCards(userId, numberFilter, pageable))
+                .map(this::maskNumber);
     }
 
-    @Transactional
-    public void transferBetweenCards(TransferRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь %s не найден", username)));
-        Card fromCard = cardRepository.findById(request.getFromCardId())
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Карта-отправитель с id %d не найдена", request.getFromCardId())));
-        Card toCard = cardRepository.findById(request.getToCardId())
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Карта-получатель с id %d не найдена", request.getToCardId())));
-
-        if (!fromCard.getUser().getId().equals(user.getId()) || !toCard.getUser().getId().equals(user.getId())) {
-            throw new AccessDeniedException("Перевод доступен только между своими картами");
+    private Page<CardDto> findUserCards(Long userId, String numberFilter, Pageable pageable) {
+        if (numberFilter == null || numberFilter.isBlank()) {
+            return cardRepository.findCardDtosByUserId(userId, pageable);
         }
-
-        if (fromCard.getStatus() != CardStatus.ACTIVE) {
-            throw new IllegalStateException(String.format("Карта-отправитель с id %d неактивна", fromCard.getId()));
+        String filter = numberFilter.replace(" ", "");
+        if (filter.matches("\\d{4}")) {
+            return cardRepository.findCardDtosByUserIdAndLast4Hash(userId, cardNumberHasher.hashLastDigits(filter), pageable);
         }
-        if (toCard.getStatus() != CardStatus.ACTIVE) {
-            throw new IllegalStateException(String.format("Карта-получатель с id %d неактивна", toCard.getId()));
+        if (filter.matches("\\d{16}")) {
+            return cardRepository.findCardDtosByUserIdAndNumberHash(userId, cardNumberHasher.hashNumber(filter), pageable);
         }
+        throw new IllegalArgumentException("Фильтр по номеру должен содержать последние 4 цифры или полный номер карты");
+    }
 
+    private CardDto maskNumber(CardDto card) {
+        card.setNumber(CardNumberUtil.maskCardNumber(card.getNumber()));
+        return card;
+    }
+
+    public void transferBetweenCards(TransferRequest request, String idempotencyKey) {
+        Long userId = currentUserResolver.getCurrentUserId();
+        idempotencyService.execute(userId, idempotencyKey, fingerprint(request),
+                () -> transferMetrics.record(TransferMetrics.SINGLE, () -> executeTransfer(userId, request)).getId());
+    }
+
+    private static String fingerprint(TransferRequest request) {
+        String amount = request.getAmount() == null ? "" : request.getAmount().stripTrailingZeros().toPlainString();
+        return request.getFromCardId() + ":" + request.getToCardId() + ":" + amount;
+    }
+
+    private Transfer executeTransfer(Long userId, TransferRequest request) {
+        Long fromCardId = request.getFromCardId();
+        Long toCardId = request.getToCardId();
         BigDecimal amount = request.getAmount();
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+
+        if (fromCardId == null || toCardId == null) {
+            throw new IllegalArgumentException("Не указаны карты перевода");
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Сумма перевода должна быть положительной");
         }
-        if (fromCard.getBalance().compareTo(amount) < 0) {
-            throw new IllegalStateException("Недостаточно средств на карте-источнике");
+        if (fromCardId.equals(toCardId)) {
+            throw new IllegalArgumentException("Карта-отправитель и карта-получатель совпадают");
+        }
+
+        if (fromCardId < toCardId) {
+            debit(userId, fromCardId, amount);
+            credit(userId, toCardId, amount);
+        } else {
+            credit(userId, toCardId, amount);
+            debit(userId, fromCardId, amount);
         }
 
-        fromCard.setBalance(fromCard.getBalance().subtract(amount));
-        toCard.setBalance(toCard.getBalance().add(amount));
+        Transfer transfer = new Transfer();
+        transfer.setFromCardId(fromCardId);
+        transfer.setToCardId(toCardId);
+        transfer.setAmount(amount);
+        return transferRepository.save(transfer);
+    }
 
-        cardRepository.save(fromCard);
-        cardRepository.save(toCard);
+    private void debit(Long userId, Long cardId, BigDecimal amount) {
+        if (cardRepository.debit(cardId, userId, amount, CardStatus.ACTIVE) == 0) {
+            Card card = checkTransferCard(userId, cardId, "Карта-отправитель");
+            if (card.getBalance().compareTo(amount) < 0) {
+                throw new TransferRejectedException(TransferRejectedException.INSUFFICIENT_FUNDS,
+                        "Недостаточно средств на карте-источнике");
+            }
+            throw new TransferRejectedException(TransferRejectedException.CONCURRENT_UPDATE,
+                    String.format("Не удалось списать средства с карты с id %d", cardId));
+        }
+    }
+
+    private void credit(Long userId, Long cardId, BigDecimal amount) {
+        if (cardRepository.credit(cardId, userId, amount, CardStatus.ACTIVE) == 0) {
+            checkTransferCard(userId, cardId, "Карта-получатель");
+            throw new TransferRejectedException(TransferRejectedException.CONCURRENT_UPDATE,
+                    String.format("Не удалось зачислить средства на карту с id %d", cardId));
+        }
+    }
+
+    private Card checkTransferCard(Long userId, Long cardId, String cardRole) {
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("%s с id %d не найдена", cardRole, cardId)));
+        if (!card.getUser().getId().equals(userId)) {
+            throw new AccessDeniedException("Перевод доступен только между своими картами");
+        }
+        if (card.getStatus() != CardStatus.ACTIVE) {
+            throw new TransferRejectedException(TransferRejectedException.CARD_INACTIVE,
+                    String.format("%s с id %d неактивна", cardRole, cardId));
+        }
+        if (!card.getExpirationDate().isAfter(LocalDateTime.now())) {
+            throw new TransferRejectedException(TransferRejectedException.CARD_EXPIRED,
+                    String.format("%s с id %d просрочена", cardRole, cardId));
+        }
+        return card;
     }
 
     @Transactional
@@ -113,10 +207,17 @@ public class CardService {
             throw new IllegalArgumentException("Начальный баланс карты не может быть отрицательным");
         }
 
-        String generatedCardNumber = CardNumberUtil.generateCardNumber();
+        String generatedCardNumber = cardNumberIssuer.next();
+        String numberHash = cardNumberHasher.hashNumber(generatedCardNumber);
+        while (cardRepository.existsByNumberHash(numberHash)) {
+            generatedCardNumber = cardNumberIssuer.next();
+            numberHash = cardNumberHasher.hashNumber(generatedCardNumber);
+        }
 
         Card card = new Card();
         card.setNumber(generatedCardNumber);
+        card.setNumberHash(numberHash);
+        card.setLast4Hash(cardNumberHasher.hashLastDigits(generatedCardNumber));
         card.setExpirationDate(LocalDateTime.now().plusYears(4));
         card.setStatus(CardStatus.ACTIVE);
         card.setBalance(balance);
@@ -125,15 +226,7 @@ public class CardService {
 
         cardRepository.save(card);
 
-        return new CardDto(
-                card.getId(),
-                CardNumberUtil.maskCardNumber(generatedCardNumber),
-                card.getExpirationDate(),
-                card.getStatus(),
-                card.getBalance(),
-                card.getCreatedAt(),
-                user.getUsername()
-        );
+        return CardDto.from(card);
     }
 
     @Transactional
@@ -146,20 +239,18 @@ public class CardService {
             throw new IllegalStateException("Карта уже заблокирована");
         }
         card.setStatus(CardStatus.BLOCKED);
+        card.setBlockRequestedAt(null);
         cardRepository.save(card);
     }
 
     @Transactional
     public void requestCardBlock(Long cardId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new EntityNotFoundException(
-                String.format("Пользователь %s не найден", username)
-        ));
+        Long userId = currentUserResolver.getCurrentUserId();
         Card card = cardRepository.findById(cardId).orElseThrow(() -> new EntityNotFoundException(
                 String.format("Карта с id %d не найдена", cardId)
         ));
 
-        if (!card.getUser().getId().equals(user.getId())) {
+        if (!card.getUser().getId().equals(userId)) {
             throw new AccessDeniedException("Запрос на блокировку чужой карты");
         }
         if (card.getStatus() == CardStatus.BLOCKED) {
@@ -170,6 +261,7 @@ public class CardService {
         }
 
         card.setStatus(CardStatus.BLOCK_REQUESTED);
+        card.setBlockRequestedAt(LocalDateTime.now());
         cardRepository.save(card);
 
 
@@ -184,7 +276,11 @@ public class CardService {
         if (card.getStatus() == CardStatus.ACTIVE) {
             throw new IllegalStateException("Карта уже активирована");
         }
+        if (!card.getExpirationDate().isAfter(LocalDateTime.now())) {
+            throw new IllegalStateException("Срок действия карты истёк, активация невозможна");
+        }
         card.setStatus(CardStatus.ACTIVE);
+        card.setBlockRequestedAt(null);
         cardRepository.save(card);
     }
 
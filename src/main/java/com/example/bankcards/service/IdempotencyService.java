@@ -0,0 +1,104 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, CompletedRequest> completedRequests;
+    private final Counter replays;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl}") Duration ttl,
+                              @Value("${idempotency.cache.max-size}") long maxSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.completedRequests = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.replays = meterRegistry.counter("idempotency.replays");
+        CaffeineCacheMetrics.monitor(meterRegistry, completedRequests, "idempotency-keys");
+    }
+
+    public Long execute(Long userId, String key, String fingerprint, Supplier<Long> action) {
+        if (key == null) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format("Ключ идемпотентности должен содержать от 1 до %d символов", MAX_KEY_LENGTH));
+        }
+
+        String cacheKey = userId + ":" + key;
+        CompletedRequest cached = completedRequests.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, fingerprint);
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (idempotencyKeyRepository.reserve(userId, key, fingerprint, LocalDateTime.now()) == 0) {
+                IdempotencyKey existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                        .orElseThrow(() -> new IllegalStateException("Запрос с этим ключом идемпотентности ещё выполняется"));
+                CompletedRequest completed = new CompletedRequest(existing.getRequestFingerprint(), existing.getTransferId());
+                completedRequests.put(cacheKey, completed);
+                return replay(completed, fingerprint);
+            }
+
+            Long transferId = action.get();
+            idempotencyKeyRepository.complete(userId, key, transferId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    completedRequests.put(cacheKey, new CompletedRequest(fingerprint, transferId));
+                }
+            });
+            return transferId;
+        });
+    }
+
+    @Scheduled(cron = "${idempotency.cleanup-cron}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        log.info("Удалено {} устаревших ключей идемпотентности", deleted);
+    }
+
+    private Long replay(CompletedRequest completed, String fingerprint) {
+        if (!completed.fingerprint().equals(fingerprint)) {
+            throw new IllegalStateException("Ключ идемпотентности уже использован для другого запроса");
+        }
+        replays.increment();
+        return completed.transferId();
+    }
+
+    private record CompletedRequest(String fingerprint, Long transferId) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBalanceDto;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalanceSnapshot;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.repository.CardBalanceSnapshotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.security.CurrentUserResolver;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class LedgerService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TransferRepository transferRepository;
+    private final CardBalanceSnapshotRepository snapshotRepository;
+    private final CardRepository cardRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final TransactionTemplate balanceReadTemplate;
+
+    public LedgerService(TransferRepository transferRepository,
+                         CardBalanceSnapshotRepository snapshotRepository,
+                         CardRepository cardRepository,
+                         CurrentUserResolver currentUserResolver,
+                         PlatformTransactionManager transactionManager) {
+        this.transferRepository = transferRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.cardRepository = cardRepository;
+        this.currentUserResolver = currentUserResolver;
+        this.balanceReadTemplate = new TransactionTemplate(transactionManager);
+        this.balanceReadTemplate.setReadOnly(true);
+        this.balanceReadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public CursorPage<TransferDto> getCardTransfers(Long cardId, String cursor, int size) {
+        checkOwnCard(cardId);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        long beforeId = parseCursor(cursor);
+        List<TransferDto> transfers = transferRepository.findCardTransfersBefore(cardId, beforeId, size)
+                .stream()
+                .map(this::toDto)
+                .toList();
+        String nextCursor = transfers.size() < size ? null : String.valueOf(transfers.get(transfers.size() - 1).getId());
+        return new CursorPage<>(transfers, nextCursor);
+    }
+
+    public CardBalanceDto getBalanceAt(Long cardId, LocalDateTime at) {
+        return balanceReadTemplate.execute(status -> readBalanceAt(cardId, at));
+    }
+
+    private CardBalanceDto readBalanceAt(Long cardId, LocalDateTime at) {
+        checkOwnCard(cardId);
+        Optional<CardBalanceSnapshot> before = snapshotRepository
+                .findFirstByCardIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(cardId, at);
+        if (before.isPresent()) {
+            BigDecimal tail = transferRepository.sumNetAmountAfter(cardId, before.get().getLastTransferId(), at);
+            return new CardBalanceDto(cardId, before.get().getBalance().add(tail), at);
+        }
+
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Карта с id %d не найдена", cardId)));
+        if (card.getCreatedAt().isAfter(at)) {
+            throw new IllegalArgumentException("На указанный момент карта ещё не была выпущена");
+        }
+        Optional<CardBalanceSnapshot> after = snapshotRepository
+                .findFirstByCardIdAndCreatedAtGreaterThanOrderByCreatedAtAsc(cardId, at);
+        BigDecimal base = after.map(CardBalanceSnapshot::getBalance).orElse(card.getBalance());
+        Long upToId = after.map(CardBalanceSnapshot::getLastTransferId).orElse(Long.MAX_VALUE);
+        BigDecimal tail = transferRepository.sumNetAmountSince(cardId, upToId, at);
+        return new CardBalanceDto(cardId, base.subtract(tail), at);
+    }
+
+    private void checkOwnCard(Long cardId) {
+        Long ownerId = cardRepository.findOwnerId(cardId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Карта с id %d не найдена", cardId)));
+        if (!ownerId.equals(currentUserResolver.getCurrentUserId())) {
+            throw new AccessDeniedException("Просмотр операций чужой карты");
+        }
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+
+    private TransferDto toDto(Transfer transfer) {
+        return new TransferDto(
+                transfer.getId(),
+                transfer.getFromCardId(),
+                transfer.getToCardId(),
+                transfer.getAmount(),
+                transfer.getCreatedAt()
+        );
+    }
+}
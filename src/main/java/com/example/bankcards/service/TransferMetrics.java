@@ -0,0 +1,75 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.TransferRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class TransferMetrics {
+
+    public static final String SINGLE = "single";
+    public static final String BATCH = "batch";
+    public static final String CARD_NOT_FOUND = "card_not_found";
+    public static final String ACCESS_DENIED = "access_denied";
+
+    private static final String SUCCESS = "success";
+    private static final String FAILURE = "failure";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String mode, Supplier<T> transfer) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = transfer.get();
+            sample.stop(meterRegistry.timer("bank.transfers.duration", "mode", mode, "outcome", SUCCESS, "reason", NONE));
+            if (SINGLE.equals(mode)) {
+                succeeded(mode, 1);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            String reason = reason(e);
+            sample.stop(meterRegistry.timer("bank.transfers.duration", "mode", mode, "outcome", FAILURE, "reason", reason));
+            if (SINGLE.equals(mode)) {
+                failed(mode, reason);
+            }
+            throw e;
+        }
+    }
+
+    public void succeeded(String mode, int count) {
+        if (count > 0) {
+            meterRegistry.counter("bank.transfers", "mode", mode, "outcome", SUCCESS, "reason", NONE).increment(count);
+        }
+    }
+
+    public void failed(String mode, String reason) {
+        meterRegistry.counter("bank.transfers", "mode", mode, "outcome", FAILURE, "reason", reason).increment();
+    }
+
+    private static String reason(RuntimeException e) {
+        if (e instanceof TransferRejectedException rejected) {
+            return rejected.getReason();
+        }
+        if (e instanceof EntityNotFoundException) {
+            return CARD_NOT_FOUND;
+        }
+        if (e instanceof AccessDeniedException) {
+            return ACCESS_DENIED;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        if (e instanceof IllegalStateException) {
+            return "conflict";
+        }
+        return "error";
+    }
+}
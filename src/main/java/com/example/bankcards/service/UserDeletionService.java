@@ -0,0 +1,137 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.UserDeletionStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.TokenRevocationStore;
+import com.example.bankcards.security.UserIdentityCache;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class UserDeletionService implements AutoCloseable {
+
+    private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final UserService userService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserIdentityCache userIdentityCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration retention;
+    private final ExecutorService executor;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+
+    public UserDeletionService(UserRepository userRepository,
+                               CardRepository cardRepository,
+                               UserService userService,
+                               TokenRevocationStore tokenRevocationStore,
+                               UserIdentityCache userIdentityCache,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${users.deletion.chunk-size}") int chunkSize,
+                               @Value("${users.deletion.retention}") Duration retention) {
+        this.userRepository = userRepository;
+        this.cardRepository = cardRepository;
+        this.userService = userService;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.userIdentityCache = userIdentityCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public UserDeletionStatus startDeletion(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(String.format("Пользователь с id %d не найден", userId));
+        }
+        evictFinished();
+        Job job = new Job(userId, cardRepository.countByUserId(userId));
+        if (jobs.compute(userId, (id, current) -> current != null && current.isRunning() ? current : job) != job) {
+            throw new IllegalStateException(String.format("Удаление пользователя с id %d уже выполняется", userId));
+        }
+        tokenRevocationStore.revoke(userId);
+        executor.execute(() -> run(job));
+        return job.toStatus();
+    }
+
+    public UserDeletionStatus getStatus(Long userId) {
+        Job job = jobs.get(userId);
+        if (job == null) {
+            throw new EntityNotFoundException(String.format("Удаление пользователя с id %d не запускалось", userId));
+        }
+        return job.toStatus();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> cardRepository.deleteChunkByUserId(job.userId, chunkSize));
+                job.deletedCards.addAndGet(deleted);
+            } while (deleted == chunkSize);
+            job.deletedCards.addAndGet(transactionTemplate.execute(status -> userService.purgeUser(job.userId)));
+            userIdentityCache.invalidate(job.userId);
+            job.finish(UserDeletionStatus.State.COMPLETED, null);
+            log.info("Пользователь с id {} удален, удалено карт: {}", job.userId, job.deletedCards.get());
+        } catch (RuntimeException e) {
+            job.finish(UserDeletionStatus.State.FAILED, e.getMessage());
+            log.error("Не удалось удалить пользователя с id {}", job.userId, e);
+        }
+    }
+
+    private void evictFinished() {
+        LocalDateTime threshold = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> !job.isRunning() && job.finishedAt.isBefore(threshold));
+    }
+
+    private static class Job {
+        private final Long userId;
+        private final long totalCards;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong deletedCards = new AtomicLong();
+        private volatile UserDeletionStatus.State state = UserDeletionStatus.State.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(Long userId, long totalCards) {
+            this.userId = userId;
+            this.totalCards = totalCards;
+        }
+
+        private boolean isRunning() {
+            return state == UserDeletionStatus.State.RUNNING;
+        }
+
+        private void finish(UserDeletionStatus.State state, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        private UserDeletionStatus toStatus() {
+            return new UserDeletionStatus(userId, state, totalCards, deletedCards.get(), startedAt, finishedAt, error);
+        }
+    }
+}
@@ -1,30 +1,90 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.TokenRevocationStore;
+import com.example.bankcards.security.UserIdentityCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserIdentityCache userIdentityCache;
+    private final ObjectMapper objectMapper;
+
+    public CursorPage<UserDto> getUsers(String cursor, int size, String usernamePrefix, String email) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        long afterId = parseCursor(cursor);
+        boolean hasPrefix = usernamePrefix != null && !usernamePrefix.isEmpty();
+        List<UserDto> users;
+        if (email != null && !email.isBlank()) {
+            users = userRepository.findUserDtoByEmail(email)
+                    .filter(user -> user.getId() > afterId)
+                    .filter(user -> !hasPrefix || user.getUsername().startsWith(usernamePrefix))
+                    .stream()
+                    .toList();
+        } else if (hasPrefix) {
+            users = userRepository.findUserDtosByUsernameLike(likePrefix(usernamePrefix), afterId, PageRequest.ofSize(size));
+        } else {
+            users = userRepository.findUserDtosAfter(afterId, PageRequest.ofSize(size));
+        }
+        String nextCursor = users.size() < size ? null : String.valueOf(users.get(users.size() - 1).getId());
+        return new CursorPage<>(users, nextCursor);
+    }
+
+    @Transactional
+    public long exportUsers(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long exported = 0;
+        try (Stream<UserDto> users = userRepository.streamUserDtos()) {
+            for (UserDto user : (Iterable<UserDto>) users::iterator) {
+                writer.write(objectMapper.writeValueAsString(user));
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+        return exported;
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
 
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> new UserDto(
-                        user.getId(),
-                        user.getUsername(),
-                        user.getFullName(),
-                        user.getEmail()
-                ))
-                .toList();
+    private static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
 
     public UserDto getUser(Long id) {
@@ -51,12 +111,28 @@ public class UserService {
 
     @Transactional
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        purgeUser(id);
+        tokenRevocationStore.revoke(id);
+        userIdentityCache.invalidate(id);
     }
 
     @Transactional
     public void deleteUser(String username) {
-        userRepository.deleteByUsername(username);
+        userRepository.findIdByUsername(username)
+                .ifPresent(id -> {
+                    purgeUser(id);
+                    tokenRevocationStore.revoke(id);
+                });
+        userIdentityCache.invalidate(username);
+    }
+
+    int purgeUser(Long id) {
+        int cards = cardRepository.deleteAllByUserId(id);
+        userRepository.deleteRolesByUserId(id);
+        if (userRepository.deleteRowById(id) == 0) {
+            throw new EntityNotFoundException(String.format("Пользователь с id %d не найден", id));
+        }
+        return cards;
     }
 
 }
@@ -6,15 +6,62 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 @Component
 @Converter
 public class CardNumberEncryptor implements AttributeConverter<String, String> {
 
-    @Value("${encryption.card-key}")
-    private String secret;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final int LEGACY_VERSION = 0;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final char VERSION_PREFIX = 'v';
+    private static final char HEADER_SEPARATOR = ':';
+    private static final ThreadLocal<long[]> DECRYPT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final int currentVersion;
+    private final String currentHeader;
+    private final Map<Integer, SecretKeySpec> keys = new HashMap<>();
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final BoundedPool<Cipher> ciphers = new BoundedPool<>(() -> newCipher(TRANSFORMATION));
+    private final BoundedPool<Cipher> legacyCiphers = new BoundedPool<>(() -> newCipher(LEGACY_TRANSFORMATION));
+
+    public CardNumberEncryptor(@Value("${encryption.card-key}") String cardKey,
+                               @Value("${encryption.card-key-version:1}") int cardKeyVersion,
+                               @Value("${encryption.retired-card-keys:}") String retiredCardKeys) {
+        if (cardKeyVersion <= LEGACY_VERSION) {
+            throw new IllegalArgumentException("Версия ключа шифрования карт должна быть положительной");
+        }
+        this.currentVersion = cardKeyVersion;
+        this.currentHeader = String.valueOf(VERSION_PREFIX) + cardKeyVersion + HEADER_SEPARATOR;
+        for (String entry : retiredCardKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(HEADER_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Старый ключ шифрования карт должен иметь формат <версия>:<ключ>");
+            }
+            keys.put(Integer.parseInt(entry.substring(0, separator).trim()), toKey(entry.substring(separator + 1).trim()));
+        }
+        keys.put(cardKeyVersion, toKey(cardKey));
+        if (!keys.containsKey(LEGACY_VERSION)) {
+            if (cardKeyVersion != 1) {
+                throw new IllegalArgumentException(
+                        "После ротации ключ для старых номеров карт без версии нужно указать явно в формате 0:<ключ>");
+            }
+            keys.put(LEGACY_VERSION, keys.get(cardKeyVersion));
+        }
+    }
 
     @Override
     public String convertToDatabaseColumn(String plainCardNumber) {
@@ -22,13 +69,20 @@ public class CardNumberEncryptor implements AttributeConverter<String, String> {
             return null;
         }
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            byte[] keyBytes = Base64.getDecoder().decode(secret);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-            byte[] encryptedBytes = cipher.doFinal(plainCardNumber.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
-        } catch (Exception e) {
+            byte[] plain = plainCardNumber.getBytes(StandardCharsets.US_ASCII);
+            byte[] payload = new byte[IV_LENGTH + plain.length + TAG_LENGTH_BITS / 8];
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            System.arraycopy(iv, 0, payload, 0, IV_LENGTH);
+            Cipher encryptCipher = ciphers.acquire();
+            try {
+                encryptCipher.init(Cipher.ENCRYPT_MODE, keys.get(currentVersion), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+                encryptCipher.doFinal(plain, 0, plain.length, payload, IV_LENGTH);
+            } finally {
+                ciphers.release(encryptCipher);
+            }
+            return currentHeader + Base64.getEncoder().encodeToString(payload);
+        } catch (GeneralSecurityException e) {
             throw new IllegalArgumentException("Ошибка шифрования номера карты", e);
         }
     }
@@ -38,15 +92,69 @@ public class CardNumberEncryptor implements AttributeConverter<String, String> {
         if (encryptedCardNumber == null) {
             return null;
         }
+        long started = System.nanoTime();
+        try {
+            return decrypt(encryptedCardNumber);
+        } finally {
+            DECRYPT_NANOS.get()[0] += System.nanoTime() - started;
+        }
+    }
+
+    public long drainDecryptNanos() {
+        long[] elapsed = DECRYPT_NANOS.get();
+        long drained = elapsed[0];
+        elapsed[0] = 0;
+        return drained;
+    }
+
+    private String decrypt(String encryptedCardNumber) {
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            byte[] keyBytes = Base64.getDecoder().decode(secret);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedCardNumber));
-            return new String(decryptedBytes);
-        } catch (Exception e) {
+            int separator = encryptedCardNumber.indexOf(HEADER_SEPARATOR);
+            if (separator < 0) {
+                return decryptLegacy(encryptedCardNumber);
+            }
+            if (encryptedCardNumber.charAt(0) != VERSION_PREFIX) {
+                throw new IllegalArgumentException("Неизвестный формат зашифрованного номера карты");
+            }
+            int version = Integer.parseInt(encryptedCardNumber, 1, separator, 10);
+            SecretKeySpec key = keys.get(version);
+            if (key == null) {
+                throw new IllegalArgumentException(String.format("Ключ шифрования карт версии %d не настроен", version));
+            }
+            byte[] payload = Base64.getDecoder().decode(encryptedCardNumber.substring(separator + 1));
+            Cipher decryptCipher = ciphers.acquire();
+            try {
+                decryptCipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+                byte[] plain = decryptCipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+                return new String(plain, StandardCharsets.US_ASCII);
+            } finally {
+                ciphers.release(decryptCipher);
+            }
+        } catch (GeneralSecurityException | NumberFormatException e) {
             throw new IllegalArgumentException("Ошибка расшифровки номера карты", e);
         }
     }
+
+    private String decryptLegacy(String encryptedCardNumber) throws GeneralSecurityException {
+        Cipher decryptCipher = legacyCiphers.acquire();
+        try {
+            decryptCipher.init(Cipher.DECRYPT_MODE, keys.get(LEGACY_VERSION));
+            byte[] plain = decryptCipher.doFinal(Base64.getDecoder().decode(encryptedCardNumber));
+            return new String(plain, StandardCharsets.US_ASCII);
+        } finally {
+            legacyCiphers.release(decryptCipher);
+        }
+    }
+
+    private static SecretKeySpec toKey(String base64Key) {
+        return new SecretKeySpec(Base64.getDecoder().decode(base64Key), "AES");
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Алгоритм шифрования недоступен: " + transformation, e);
+        }
+    }
 }
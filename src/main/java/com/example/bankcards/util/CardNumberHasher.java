@@ -0,0 +1,58 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+@Component
+public class CardNumberHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    public static final int LAST_DIGITS = 4;
+
+    private final BoundedPool<Mac> macs;
+
+    public CardNumberHasher(@Value("${encryption.card-hash-key}") String hashKey) {
+        SecretKeySpec keySpec = new SecretKeySpec(Base64.getDecoder().decode(hashKey), ALGORITHM);
+        try {
+            Mac.getInstance(ALGORITHM).init(keySpec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Некорректный ключ хеширования номеров карт", e);
+        }
+        this.macs = new BoundedPool<>(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Ошибка инициализации HMAC", e);
+            }
+        });
+    }
+
+    public String hashNumber(String cardNumber) {
+        return hash(cardNumber);
+    }
+
+    public String hashLastDigits(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < LAST_DIGITS) {
+            throw new IllegalArgumentException("Номер карты слишком короткий");
+        }
+        return hash(cardNumber.substring(cardNumber.length() - LAST_DIGITS));
+    }
+
+    private String hash(String value) {
+        Mac instance = macs.acquire();
+        try {
+            return Base64.getEncoder().encodeToString(instance.doFinal(value.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            instance.reset();
+            macs.release(instance);
+        }
+    }
+}
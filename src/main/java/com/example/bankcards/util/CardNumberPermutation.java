@@ -0,0 +1,96 @@
+package com.example.bankcards.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+public class CardNumberPermutation {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int CARD_NUMBER_LENGTH = 16;
+    private static final int MIN_BIN_LENGTH = 6;
+    private static final int MAX_BIN_LENGTH = 8;
+    private static final int ROUNDS = 8;
+
+    private final String bin;
+    private final int accountDigits;
+    private final long capacity;
+    private final int halfBits;
+    private final long halfMask;
+    private final BoundedPool<Mac> macs;
+
+    public CardNumberPermutation(String bin, byte[] key) {
+        if (bin == null || !bin.matches("\\d{" + MIN_BIN_LENGTH + "," + MAX_BIN_LENGTH + "}")) {
+            throw new IllegalArgumentException(String.format(
+                    "BIN должен содержать от %d до %d цифр", MIN_BIN_LENGTH, MAX_BIN_LENGTH));
+        }
+        this.bin = bin;
+        this.accountDigits = CARD_NUMBER_LENGTH - 1 - bin.length();
+        this.capacity = (long) Math.pow(10, accountDigits);
+        int bits = 64 - Long.numberOfLeadingZeros(capacity - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        this.macs = new BoundedPool<>(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Ошибка инициализации HMAC", e);
+            }
+        });
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public String cardNumber(long index) {
+        if (index < 0 || index >= capacity) {
+            throw new IllegalStateException(String.format("Диапазон номеров карт для BIN %s исчерпан", bin));
+        }
+        StringBuilder number = new StringBuilder(CARD_NUMBER_LENGTH).append(bin);
+        String account = Long.toString(permute(index));
+        number.append("0".repeat(accountDigits - account.length())).append(account);
+        return number.append(CardNumberUtil.luhnCheckDigit(number)).toString();
+    }
+
+    private long permute(long index) {
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= capacity);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        Mac instance = macs.acquire();
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long next = left ^ roundFunction(instance, round, right);
+                left = right;
+                right = next;
+            }
+        } finally {
+            instance.reset();
+            macs.release(instance);
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long roundFunction(Mac instance, int round, long half) {
+        instance.update((byte) round);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            instance.update((byte) (half >>> shift));
+        }
+        byte[] digest = instance.doFinal();
+        long result = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            result = (result << 8) | (digest[i] & 0xFF);
+        }
+        return result & halfMask;
+    }
+}
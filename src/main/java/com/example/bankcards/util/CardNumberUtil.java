@@ -2,21 +2,47 @@ package com.example.bankcards.util;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import java.security.SecureRandom;
 
 @Component
 public class CardNumberUtil {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private CardNumberUtil() {
     }
 
     public static String generateCardNumber() {
-        Random random = new Random();
-        StringBuilder cardNumber = new StringBuilder();
-        for (int i = 0; i < 16; i++) {
-            cardNumber.append(random.nextInt(10));
+        StringBuilder cardNumber = new StringBuilder(16);
+        for (int i = 0; i < 15; i++) {
+            cardNumber.append(RANDOM.nextInt(10));
+        }
+        return cardNumber.append(luhnCheckDigit(cardNumber)).toString();
+    }
+
+    public static char luhnCheckDigit(CharSequence payload) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    public static boolean isLuhnValid(String cardNumber) {
+        if (cardNumber == null || !cardNumber.matches("\\d{2,19}")) {
+            return false;
         }
-        return cardNumber.toString();
+        int last = cardNumber.length() - 1;
+        return luhnCheckDigit(cardNumber.substring(0, last)) == cardNumber.charAt(last);
     }
 
     public static String maskCardNumber(String cardNumber) {
@@ -1,7 +1,9 @@
 package com.example.bankcards.util;
 
+import com.example.bankcards.security.UserDetailsImpl;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
 import io.jsonwebtoken.security.Keys;
@@ -18,13 +20,20 @@ import java.util.stream.Collectors;
 @Component
 public class JwtUtil {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
+
     private final Duration jwtExpiration;
     private final SecretKey key;
+    private final JwtParser jwtParser;
 
     public JwtUtil(@Value("${jwt.secret}") String jwtSecret,
                    @Value("${jwt.expiration}") Duration jwtExpiration) {
         this.jwtExpiration = jwtExpiration;
         this.key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(jwtSecret));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -32,7 +41,10 @@ public class JwtUtil {
         List<String> rolesList = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
-        claims.put("roles", rolesList);
+        claims.put(ROLES_CLAIM, rolesList);
+        if (userDetails instanceof UserDetailsImpl details && details.getId() != null) {
+            claims.put(USER_ID_CLAIM, details.getId());
+        }
 
         return Jwts.builder()
                 .claims(claims)
@@ -44,11 +56,14 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    public Optional<Claims> parseClaims(String token) {
         try {
-            getClaimsFromToken(token);
-            return true;
+            return Optional.of(getClaimsFromToken(token));
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
@@ -58,14 +73,11 @@ public class JwtUtil {
 
     @SuppressWarnings("unchecked")
     public List<String> getRoles(String token) {
-        return getClaimsFromToken(token).get("roles", List.class);
+        return getClaimsFromToken(token).get(ROLES_CLAIM, List.class);
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload();
     }
 
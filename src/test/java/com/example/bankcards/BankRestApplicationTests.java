@@ -1,10 +1,9 @@
 package com.example.bankcards;
 
+import com.example.bankcards.support.PostgresIntegrationTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class BankRestApplicationTests {
+class BankRestApplicationTests extends PostgresIntegrationTest {
 
 	@Test
 	void contextLoads() {
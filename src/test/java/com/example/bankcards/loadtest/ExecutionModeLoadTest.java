@@ -0,0 +1,179 @@
+package com.example.bankcards.loadtest;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ExecutionModeLoadTest.ProbeConfig.class)
+class ExecutionModeLoadTest extends PostgresIntegrationTest {
+
+    private static final int CARDS = 20;
+    private static final String PASSWORD = "load-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${loadtest.concurrency:400}")
+    private int concurrency;
+
+    @Value("${loadtest.requests:5000}")
+    private int requests;
+
+    @Autowired
+    private InFlightRequestProbe probe;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> cardIds = new ArrayList<>();
+    private String token;
+
+    @TestConfiguration
+    static class ProbeConfig {
+        @Bean
+        InFlightRequestProbe inFlightRequestProbe() {
+            return new InFlightRequestProbe();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User user = new User();
+        user.setUsername("load-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRoles(Set.of(roleRepository.findByName("ROLE_USER").orElseThrow()));
+        user = userRepository.save(user);
+        for (int i = 0; i < CARDS; i++) {
+            Card card = new Card();
+            card.setNumber(String.format("5100%012d", i));
+            card.setExpirationDate(LocalDateTime.now().plusYears(4));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(BigDecimal.valueOf(1_000_000));
+            card.setUser(user);
+            cardIds.add(cardRepository.save(card).getId());
+        }
+
+        HttpResponse<String> login = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        token = objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    @Test
+    void compareListingAndTransferLatency() throws Exception {
+        LoadRunner runner = new LoadRunner(concurrency);
+        String mode = virtualThreads ? "virtual threads" : "platform threads";
+
+        runner.run("warm-up", Math.min(requests, 500), i -> listCards(""));
+        probe.resetPeak();
+        double dbBefore = listingNanos("db");
+        double decryptBefore = listingNanos("decrypt");
+        LoadRunner.Report listing = runner.run("GET /api/cards", requests, i -> listCards(""));
+        int listingPeak = probe.resetPeak();
+        double db = listingNanos("db") - dbBefore;
+        double decrypt = listingNanos("decrypt") - decryptBefore;
+        LoadRunner.Report search = runner.run("GET /api/cards?numberFilter", requests,
+                i -> listCards("&numberFilter=" + String.format("%04d", i % CARDS)));
+        int searchPeak = probe.resetPeak();
+        LoadRunner.Report transfers = runner.run("POST /api/cards/transfer", requests, this::transfer);
+        int transferPeak = probe.resetPeak();
+
+        log.info("Режим: {}, клиентских потоков: {}", mode, concurrency);
+        log.info("{}, одновременно на сервере до {}", listing, listingPeak);
+        log.info("Листинг на сервере: запрос к БД {} мкс, расшифровка номеров {} мкс на запрос",
+                String.format("%.0f", db / requests / 1000), String.format("%.0f", decrypt / requests / 1000));
+        log.info("{}, одновременно на сервере до {}", search, searchPeak);
+        log.info("{}, одновременно на сервере до {}", transfers, transferPeak);
+
+        assertThat(listing.failed()).isZero();
+        assertThat(search.failed()).isZero();
+        assertThat(transfers.failed()).isZero();
+    }
+
+    private double listingNanos(String phase) {
+        Timer timer = meterRegistry.find("bank.card-listing").tags("listing", "user", "phase", phase).timer();
+        return timer == null ? 0 : timer.totalTime(TimeUnit.NANOSECONDS);
+    }
+
+    private HttpRequest listCards(String query) {
+        return HttpRequest.newBuilder(uri("/api/cards?size=10" + query))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest transfer(int index) {
+        long from = cardIds.get(index % CARDS);
+        long to = cardIds.get((index * 7 + 3) % CARDS);
+        if (from == to) {
+            to = cardIds.get((index + 1) % CARDS);
+        }
+        return HttpRequest.newBuilder(uri("/api/cards/transfer"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"fromCardId\":" + from + ",\"toCardId\":" + to + ",\"amount\":1}"))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
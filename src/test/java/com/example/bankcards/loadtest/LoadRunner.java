@@ -0,0 +1,125 @@
+package com.example.bankcards.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+public class LoadRunner {
+
+    private final HttpClient httpClient;
+    private final int concurrency;
+
+    public LoadRunner(int concurrency) {
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public Report run(String name, int requests, IntFunction<HttpRequest> requestFactory) throws Exception {
+        long[] latencies = new long[requests];
+        int[] statuses = new int[requests];
+        double seconds = execute(requests, requestFactory, latencies, statuses);
+        return Report.of(name, latencies, statuses, seconds);
+    }
+
+    public List<Report> runMixed(String[] operations, Map<String, IntFunction<HttpRequest>> requestFactories) throws Exception {
+        int requests = operations.length;
+        long[] latencies = new long[requests];
+        int[] statuses = new int[requests];
+        double seconds = execute(requests, i -> requestFactories.get(operations[i]).apply(i), latencies, statuses);
+
+        List<Report> reports = new ArrayList<>();
+        reports.add(Report.of("всего", latencies, statuses, seconds));
+        for (String operation : requestFactories.keySet()) {
+            int[] indexes = IntStream.range(0, requests).filter(i -> operations[i].equals(operation)).toArray();
+            if (indexes.length > 0) {
+                reports.add(Report.of(operation,
+                        Arrays.stream(indexes).mapToLong(i -> latencies[i]).toArray(),
+                        Arrays.stream(indexes).map(i -> statuses[i]).toArray(),
+                        seconds));
+            }
+        }
+        return reports;
+    }
+
+    private double execute(int requests, IntFunction<HttpRequest> requestFactory,
+                           long[] latencies, int[] statuses) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        HttpRequest request = requestFactory.apply(index);
+                        long requestStartedAt = System.nanoTime();
+                        try {
+                            statuses[index] = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            statuses[index] = -1;
+                        }
+                        latencies[index] = System.nanoTime() - requestStartedAt;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return (System.nanoTime() - startedAt) / 1_000_000_000.0;
+    }
+
+    public record Report(String name, int requests, int ok, int rejected, int failed,
+                         double p50Millis, double p95Millis, double p99Millis, double maxMillis, double throughput) {
+
+        static Report of(String name, long[] latencies, int[] statuses, double seconds) {
+            int ok = 0;
+            int rejected = 0;
+            int failed = 0;
+            for (int status : statuses) {
+                if (status >= 200 && status < 300) {
+                    ok++;
+                } else if (status == 409 || status == 429 || status == 503) {
+                    rejected++;
+                } else {
+                    failed++;
+                }
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return new Report(name, sorted.length, ok, rejected, failed,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted[sorted.length - 1] / 1_000_000.0, sorted.length / seconds);
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s запросов %6d, успешно %6d, отклонено %5d, ошибок %5d, p50 %8.1f мс, p95 %8.1f мс, p99 %8.1f мс, max %8.1f мс, %8.0f запросов/с",
+                    name, requests, ok, rejected, failed, p50Millis, p95Millis, p99Millis, maxMillis, throughput);
+        }
+    }
+}
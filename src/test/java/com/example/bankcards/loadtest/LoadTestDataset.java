@@ -0,0 +1,96 @@
+package com.example.bankcards.loadtest;
+
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class LoadTestDataset {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardNumberEncryptor cardNumberEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+
+    public LoadTestDataset(JdbcTemplate jdbcTemplate, CardNumberEncryptor cardNumberEncryptor,
+                           CardNumberHasher cardNumberHasher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cardNumberEncryptor = cardNumberEncryptor;
+        this.cardNumberHasher = cardNumberHasher;
+    }
+
+    public Seed seed(int users, int cardsPerUser, BigDecimal startBalance, String passwordHash) {
+        String prefix = "mixed-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> userRows = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[]{prefix + i, passwordHash, now});
+            if (userRows.size() == CHUNK_SIZE || i == users - 1) {
+                jdbcTemplate.batchUpdate("insert into users (username, password, created_at) values (?, ?, ?)", userRows);
+                userRows.clear();
+            }
+        }
+        jdbcTemplate.update("""
+                insert into user_roles (user_id, role_id)
+                select u.id, r.id from users u cross join roles r
+                where u.username like ? and r.name = 'ROLE_USER'
+                """, prefix + "%");
+
+        Map<Long, String> usernames = new LinkedHashMap<>();
+        jdbcTemplate.query("select id, username from users where username like ? order by id",
+                rs -> {
+                    usernames.put(rs.getLong("id"), rs.getString("username"));
+                }, prefix + "%");
+
+        Timestamp expiration = Timestamp.valueOf(LocalDateTime.now().plusYears(4));
+        long numberBase = Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000L) * 1_000_000_000L;
+        List<Object[]> cardRows = new ArrayList<>(CHUNK_SIZE);
+        long sequence = 0;
+        int remaining = usernames.size() * cardsPerUser;
+        for (Long userId : usernames.keySet()) {
+            for (int c = 0; c < cardsPerUser; c++) {
+                String number = String.format("4%015d", numberBase + sequence++);
+                cardRows.add(new Object[]{cardNumberEncryptor.convertToDatabaseColumn(number),
+                        cardNumberHasher.hashNumber(number), cardNumberHasher.hashLastDigits(number),
+                        expiration, CardStatus.ACTIVE.name(), startBalance, now, userId});
+                remaining--;
+                if (cardRows.size() == CHUNK_SIZE || remaining == 0) {
+                    jdbcTemplate.batchUpdate("""
+                            insert into cards (number, number_hash, last4_hash, expiration_date, status, balance, created_at, user_id)
+                            values (?, ?, ?, ?, ?, ?, ?, ?)
+                            """, cardRows);
+                    cardRows.clear();
+                }
+            }
+        }
+
+        Map<Long, List<Long>> cardsByUser = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                select c.id, c.user_id from cards c join users u on u.id = c.user_id
+                where u.username like ? order by c.id
+                """, rs -> {
+                    cardsByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>()).add(rs.getLong("id"));
+                }, prefix + "%");
+
+        List<SeededUser> seeded = new ArrayList<>(usernames.size());
+        usernames.forEach((id, username) -> seeded.add(new SeededUser(id, username, cardsByUser.get(id))));
+        return new Seed(prefix, seeded);
+    }
+
+    public record Seed(String usernamePrefix, List<SeededUser> users) {
+    }
+
+    public record SeededUser(Long id, String username, List<Long> cardIds) {
+    }
+}
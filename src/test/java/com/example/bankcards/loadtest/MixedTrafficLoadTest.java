@@ -0,0 +1,220 @@
+package com.example.bankcards.loadtest;
+
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MixedTrafficLoadTest extends PostgresIntegrationTest {
+
+    private static final String PASSWORD = "load-password";
+    private static final BigDecimal START_BALANCE = BigDecimal.valueOf(10_000);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${loadtest.concurrency:64}")
+    private int concurrency;
+
+    @Value("${loadtest.requests:20000}")
+    private int requests;
+
+    @Value("${loadtest.users:2000}")
+    private int users;
+
+    @Value("${loadtest.cards-per-user:4}")
+    private int cardsPerUser;
+
+    @Value("${loadtest.active-users:200}")
+    private int activeUsers;
+
+    @Value("${loadtest.mix:login=2,list=55,transfer=40,block-request=3}")
+    private String mix;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardNumberEncryptor cardNumberEncryptor;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private LoadTestDataset.Seed seed;
+    private List<LoadTestDataset.SeededUser> active;
+    private String[] tokens;
+    private long transferMark;
+
+    @BeforeEach
+    void setUp() {
+        assertThat(cardsPerUser).isGreaterThanOrEqualTo(3);
+        long startedAt = System.nanoTime();
+        seed = new LoadTestDataset(jdbcTemplate, cardNumberEncryptor, cardNumberHasher)
+                .seed(users, cardsPerUser, START_BALANCE, passwordEncoder.encode(PASSWORD));
+        log.info("Создано {} пользователей и {} карт за {} мс", users, users * cardsPerUser,
+                (System.nanoTime() - startedAt) / 1_000_000);
+
+        active = seed.users().subList(0, Math.min(activeUsers, seed.users().size()));
+        tokens = IntStream.range(0, active.size()).parallel()
+                .mapToObj(i -> login(active.get(i).username()))
+                .toArray(String[]::new);
+        transferMark = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from transfers", Long.class);
+    }
+
+    @Test
+    void mixedTraffic_shouldKeepBalancesConsistent() throws Exception {
+        Map<String, IntFunction<HttpRequest>> factories = new LinkedHashMap<>();
+        factories.put("login", i -> loginRequest(randomUser(seed.users()).username()));
+        factories.put("list", i -> authorized(i, "/api/cards?size=10").GET().build());
+        factories.put("transfer", this::transfer);
+        factories.put("block-request", this::blockRequest);
+
+        LoadRunner runner = new LoadRunner(concurrency);
+        List<LoadRunner.Report> reports = runner.runMixed(operations(factories.keySet().stream().toList()), factories);
+
+        log.info("Клиентских потоков: {}, пользователей: {}, активных: {}", concurrency, users, active.size());
+        reports.forEach(report -> log.info("{}", report));
+
+        assertThat(reports).allSatisfy(report -> assertThat(report.failed()).isZero());
+        assertInvariants(reports);
+    }
+
+    private void assertInvariants(List<LoadRunner.Report> reports) {
+        String prefix = seed.usernamePrefix() + "%";
+        BigDecimal total = jdbcTemplate.queryForObject("""
+                select coalesce(sum(c.balance), 0) from cards c join users u on u.id = c.user_id
+                where u.username like ?
+                """, BigDecimal.class, prefix);
+        assertThat(total).isEqualByComparingTo(START_BALANCE.multiply(BigDecimal.valueOf((long) users * cardsPerUser)));
+
+        Integer negative = jdbcTemplate.queryForObject("""
+                select count(*) from cards c join users u on u.id = c.user_id
+                where u.username like ? and c.balance < 0
+                """, Integer.class, prefix);
+        assertThat(negative).isZero();
+
+        Integer unbalanced = jdbcTemplate.queryForObject("""
+                select count(*) from cards c join users u on u.id = c.user_id
+                where u.username like ?
+                  and c.balance <> ?
+                      + coalesce((select sum(t.amount) from transfers t where t.to_card_id = c.id and t.id > ?), 0)
+                      - coalesce((select sum(t.amount) from transfers t where t.from_card_id = c.id and t.id > ?), 0)
+                """, Integer.class, prefix, START_BALANCE, transferMark, transferMark);
+        assertThat(unbalanced).isZero();
+
+        Integer transfers = jdbcTemplate.queryForObject("select count(*) from transfers where id > ?", Integer.class, transferMark);
+        int acceptedTransfers = reports.stream()
+                .filter(report -> report.name().equals("transfer"))
+                .mapToInt(LoadRunner.Report::ok)
+                .sum();
+        assertThat(transfers).isEqualTo(acceptedTransfers);
+    }
+
+    private String[] operations(List<String> names) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        assertThat(names).containsAll(weights.keySet());
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        SplittableRandom random = new SplittableRandom(42);
+        String[] operations = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            int roll = random.nextInt(totalWeight);
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    operations[i] = weight.getKey();
+                    break;
+                }
+            }
+        }
+        return operations;
+    }
+
+    private HttpRequest transfer(int index) {
+        LoadTestDataset.SeededUser user = active.get(index % active.size());
+        List<Long> cards = user.cardIds();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = 1 + random.nextInt(cards.size() - 1);
+        int to = 1 + (from + random.nextInt(cards.size() - 2)) % (cards.size() - 1);
+        return authorized(index, "/api/cards/transfer")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"fromCardId\":" + cards.get(from)
+                        + ",\"toCardId\":" + cards.get(to) + ",\"amount\":" + random.nextInt(1, 500) + "}"))
+                .build();
+    }
+
+    private HttpRequest blockRequest(int index) {
+        LoadTestDataset.SeededUser user = active.get(index % active.size());
+        return authorized(index, "/api/cards/" + user.cardIds().get(0) + "/block-request")
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(int index, String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + tokens[index % tokens.length]);
+    }
+
+    private String login(String username) {
+        try {
+            HttpResponse<String> response = httpClient.send(loginRequest(username), HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readTree(response.body()).get("token").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось войти под пользователем " + username, e);
+        }
+    }
+
+    private HttpRequest loginRequest(String username) {
+        return HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+    }
+
+    private static LoadTestDataset.SeededUser randomUser(List<LoadTestDataset.SeededUser> users) {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.loadtest.LoadTestDataset;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.support.QueryCapture;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(QueryCapture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 3000;
+    private static final int CARDS_PER_USER = 8;
+    private static final long LARGE_TABLE_ROWS = 1000;
+
+    @Autowired
+    private QueryCapture queryCapture;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CardNumberEncryptor cardNumberEncryptor;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String usernamePrefix;
+    private LoadTestDataset.SeededUser owner;
+    private String ownerNumberHash;
+    private Set<String> largeTables;
+
+    @BeforeAll
+    void seed() {
+        LoadTestDataset.Seed seed = new LoadTestDataset(jdbcTemplate, cardNumberEncryptor, cardNumberHasher)
+                .seed(USERS, CARDS_PER_USER, BigDecimal.valueOf(100), "password");
+        usernamePrefix = seed.usernamePrefix();
+        owner = seed.users().get(USERS / 2);
+        ownerNumberHash = jdbcTemplate.queryForObject("select number_hash from cards where id = ?",
+                String.class, owner.cardIds().get(0));
+        jdbcTemplate.update("update cards set status = ?, block_requested_at = now() where id = ?",
+                CardStatus.BLOCK_REQUESTED.name(), owner.cardIds().get(1));
+        jdbcTemplate.execute("analyze");
+        largeTables = new HashSet<>(jdbcTemplate.queryForList("""
+                select relname from pg_class
+                where relkind = 'r' and relnamespace = 'public'::regnamespace and reltuples >= ?
+                """, String.class, LARGE_TABLE_ROWS));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (usernamePrefix == null) {
+            return;
+        }
+        jdbcTemplate.update("delete from cards where user_id in (select id from users where username like ?)",
+                usernamePrefix + "%");
+        jdbcTemplate.update("delete from user_roles where user_id in (select id from users where username like ?)",
+                usernamePrefix + "%");
+        jdbcTemplate.update("delete from users where username like ?", usernamePrefix + "%");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> cardRepository_hotQueriesShouldUseIndexes() {
+        Long userId = owner.id();
+        Long cardId = owner.cardIds().get(0);
+        List<Long> cardIds = owner.cardIds();
+        LocalDateTime now = LocalDateTime.now();
+        return covering(CardRepository.class,
+                hot("findById", () -> cardRepository.findById(cardId)),
+                hot("findByUser", () -> cardRepository.findByUser(user(userId))),
+                hot("findByUser(Pageable)", () -> cardRepository.findByUser(user(userId), PageRequest.of(1, 2))),
+                hot("existsByNumberHash", () -> cardRepository.existsByNumberHash(ownerNumberHash)),
+                hot("findExistingNumberHashes", () -> cardRepository.findExistingNumberHashes(List.of(ownerNumberHash))),
+                hot("findCardDtosByUserId", () -> cardRepository.findCardDtosByUserId(userId, PageRequest.of(1, 2))),
+                hot("findCardDtosByUserIdAndLast4Hash", () -> cardRepository.findCardDtosByUserIdAndLast4Hash(
+                        userId, "last4", PageRequest.of(1, 2))),
+                hot("findCardDtosByUserIdAndNumberHash", () -> cardRepository.findCardDtosByUserIdAndNumberHash(
+                        userId, ownerNumberHash, PageRequest.of(1, 2))),
+                hot("findFirstCardDtosByBalance", () -> cardRepository.findFirstCardDtosByBalance(PageRequest.ofSize(20))),
+                hot("findNextCardDtosByBalance", () -> cardRepository.findNextCardDtosByBalance(
+                        BigDecimal.valueOf(100), cardId, PageRequest.ofSize(20))),
+                hot("findFirstBlockRequests", () -> cardRepository.findFirstBlockRequests(PageRequest.ofSize(20))),
+                hot("findNextBlockRequests", () -> cardRepository.findNextBlockRequests(
+                        now.minusDays(1), 0L, PageRequest.ofSize(20))),
+                hot("resolveBlockRequests", () -> cardRepository.resolveBlockRequests(cardIds, CardStatus.BLOCKED)),
+                hot("findOwnerId", () -> cardRepository.findOwnerId(cardId)),
+                hot("findIdsAfter", () -> cardRepository.findIdsAfter(cardId, PageRequest.ofSize(500))),
+                hot("lockBalances", () -> cardRepository.lockBalances(cardIds)),
+                hot("debit", () -> cardRepository.debit(cardId, userId, BigDecimal.ONE, CardStatus.ACTIVE)),
+                hot("credit", () -> cardRepository.credit(cardId, userId, BigDecimal.ONE, CardStatus.ACTIVE)),
+                hot("expireDueCards", () -> cardRepository.expireDueCards(now, 500)),
+                hot("findExpiryBacklog", () -> cardRepository.findExpiryBacklog(now)),
+                hot("countByUserId", () -> cardRepository.countByUserId(userId)),
+                hot("deleteAllByUserId", () -> cardRepository.deleteAllByUserId(userId)),
+                hot("deleteChunkByUserId", () -> cardRepository.deleteChunkByUserId(userId, 1000)),
+                bulk("findAll", () -> cardRepository.findAll(PageRequest.of(1, 20))),
+                bulk("findCardDtos", () -> cardRepository.findCardDtos(PageRequest.of(1, 20))),
+                bulk("findTop500ByNumberHashIsNullAndIdGreaterThanOrderById",
+                        () -> cardRepository.findTop500ByNumberHashIsNullAndIdGreaterThanOrderById(0L)),
+                bulk("streamCardDtos", () -> {
+                    try (Stream<?> cards = cardRepository.streamCardDtos()) {
+                        cards.limit(10).forEach(card -> { });
+                    }
+                }));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> userRepository_hotQueriesShouldUseIndexes() {
+        Long userId = owner.id();
+        String username = owner.username();
+        return covering(UserRepository.class,
+                hot("findById", () -> userRepository.findById(userId)),
+                hot("existsById", () -> userRepository.existsById(userId)),
+                hot("findByUsername", () -> userRepository.findByUsername(username)),
+                hot("findIdByUsername", () -> userRepository.findIdByUsername(username)),
+                hot("findUserDtosAfter", () -> userRepository.findUserDtosAfter(userId, PageRequest.ofSize(20))),
+                hot("findUserDtosByUsernameLike", () -> userRepository.findUserDtosByUsernameLike(
+                        username.substring(0, username.lastIndexOf('-') + 1) + "%", 0L, PageRequest.ofSize(20))),
+                hot("findUserDtoByEmail", () -> userRepository.findUserDtoByEmail("owner@example.com")),
+                hot("user.cards", () -> user(userId).getCards().size()),
+                hot("deleteUserById", () -> userRepository.deleteUserById(userId)),
+                hot("deleteRolesByUserId", () -> userRepository.deleteRolesByUserId(userId)),
+                hot("deleteRowById", () -> {
+                    cardRepository.deleteAllByUserId(userId);
+                    userRepository.deleteRolesByUserId(userId);
+                    userRepository.deleteRowById(userId);
+                }),
+                bulk("streamUserDtos", () -> {
+                    try (Stream<?> users = userRepository.streamUserDtos()) {
+                        users.limit(10).forEach(user -> { });
+                    }
+                }));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> roleRepository_hotQueriesShouldUseIndexes() {
+        return covering(RoleRepository.class,
+                hot("findByName", () -> roleRepository.findByName("ROLE_ADMIN")),
+                hot("role.users", () -> roleRepository.findByName("ROLE_ADMIN").orElseThrow().getUsers().size()));
+    }
+
+    private Stream<DynamicTest> covering(Class<?> repository, DynamicTest... tests) {
+        Set<String> covered = Arrays.stream(tests)
+                .map(test -> test.getDisplayName().replaceFirst("\\(.*\\)$", ""))
+                .collect(Collectors.toSet());
+        List<String> uncovered = Arrays.stream(repository.getDeclaredMethods())
+                .filter(method -> !method.isSynthetic() && !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .map(Method::getName)
+                .filter(name -> !covered.contains(name))
+                .distinct()
+                .sorted()
+                .toList();
+        DynamicTest guard = DynamicTest.dynamicTest("declaredMethodsCovered", () -> assertThat(uncovered)
+                .as("Методы %s без проверки плана запроса", repository.getSimpleName())
+                .isEmpty());
+        return Stream.concat(Arrays.stream(tests), Stream.of(guard));
+    }
+
+    private User user(Long id) {
+        return userRepository.findById(id).orElseThrow();
+    }
+
+    private DynamicTest hot(String name, Runnable action) {
+        return DynamicTest.dynamicTest(name, () -> {
+            List<String> seqScans = new ArrayList<>();
+            for (QueryCapture.CapturedQuery query : capture(action)) {
+                collectSeqScans(explain(query), query.sql(), seqScans);
+            }
+            assertThat(seqScans).as("Последовательное чтение больших таблиц в %s", name).isEmpty();
+        });
+    }
+
+    private DynamicTest bulk(String name, Runnable action) {
+        return DynamicTest.dynamicTest(name, () -> {
+            for (QueryCapture.CapturedQuery query : capture(action)) {
+                assertThat(explain(query).findValue("Node Type")).isNotNull();
+            }
+        });
+    }
+
+    private List<QueryCapture.CapturedQuery> capture(Runnable action) {
+        List<QueryCapture.CapturedQuery> queries = queryCapture.capture(() -> transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            action.run();
+        }));
+        assertThat(queries).isNotEmpty();
+        return queries;
+    }
+
+    private JsonNode explain(QueryCapture.CapturedQuery query) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return objectMapper.readTree(query.explain(connection)).get(0).get("Plan");
+        }
+    }
+
+    private void collectSeqScans(JsonNode plan, String sql, List<String> seqScans) {
+        String relation = plan.path("Relation Name").asText();
+        if ("Seq Scan".equals(plan.path("Node Type").asText()) && largeTables.contains(relation)) {
+            seqScans.add(relation + ": " + sql);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, sql, seqScans);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationStore tokenRevocationStore;
+    private UserIdentityCache userIdentityCache;
+    private JwtAuthFilter jwtAuthFilter;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        String secret = Base64.getEncoder().encodeToString("secret1234567890secret1234567890".getBytes());
+        jwtUtil = new JwtUtil(secret, Duration.ofHours(1));
+        tokenRevocationStore = mock(TokenRevocationStore.class);
+        userIdentityCache = mock(UserIdentityCache.class);
+        jwtAuthFilter = new JwtAuthFilter(new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), 100),
+                tokenRevocationStore, userIdentityCache);
+        ReflectionTestUtils.setField(jwtAuthFilter, "stateless", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessMode_shouldAuthenticateFromClaimsWithoutUserLookup() throws Exception {
+        String token = jwtUtil.generateToken(new UserDetailsImpl(7L, "user", "pass", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(((UserDetailsImpl) authentication.getPrincipal()).getId()).isEqualTo(7L);
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        verifyNoInteractions(userIdentityCache);
+    }
+
+    @Test
+    void revokedUser_shouldNotBeAuthenticated() throws Exception {
+        String token = jwtUtil.generateToken(new UserDetailsImpl(7L, "user", "pass", List.of()));
+        when(tokenRevocationStore.isRevoked(eq(7L), any())).thenReturn(true);
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tokenWithoutUserId_revokedUser_shouldNotBeAuthenticated() throws Exception {
+        String token = jwtUtil.generateToken(new User("user", "pass", List.of()));
+        when(userIdentityCache.get("user")).thenReturn(Optional.of(new UserIdentity(7L, "user", List.of("ROLE_USER"))));
+        when(tokenRevocationStore.isRevoked(eq(7L), any())).thenReturn(true);
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tokenWithoutUserId_unknownUser_shouldNotBeAuthenticated() throws Exception {
+        String token = jwtUtil.generateToken(new User("ghost", "pass", List.of()));
+        when(userIdentityCache.get("ghost")).thenReturn(Optional.empty());
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(tokenRevocationStore);
+    }
+
+    private static MockHttpServletRequest requestWithToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
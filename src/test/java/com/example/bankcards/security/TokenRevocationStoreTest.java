@@ -0,0 +1,95 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationStoreTest {
+
+    private TokenRevocationRepository tokenRevocationRepository;
+    private TokenRevocationStore tokenRevocationStore;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationRepository = mock(TokenRevocationRepository.class);
+        tokenRevocationStore = new TokenRevocationStore(tokenRevocationRepository, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revoke_insideTransaction_shouldApplyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenRevocationStore.revoke(7L);
+        assertThat(tokenRevocationStore.isRevoked(7L, secondsAgo(5))).isFalse();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(tokenRevocationStore.isRevoked(7L, secondsAgo(5))).isTrue();
+    }
+
+    @Test
+    void revoke_rolledBack_shouldNotLockUserOut() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenRevocationStore.revoke(7L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(tokenRevocationStore.isRevoked(7L, secondsAgo(5))).isFalse();
+    }
+
+    @Test
+    void refresh_withStaleSnapshot_shouldKeepNewerRevocation() {
+        when(tokenRevocationRepository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of(new TokenRevocation(7L, LocalDateTime.now().minusMinutes(10))));
+
+        tokenRevocationStore.revoke(7L);
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.isRevoked(7L, secondsAgo(5))).isTrue();
+    }
+
+    @Test
+    void refresh_shouldLoadRevocationsFromDatabase() {
+        when(tokenRevocationRepository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of(new TokenRevocation(8L, LocalDateTime.now().minusMinutes(10))));
+
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.isRevoked(8L, secondsAgo(15 * 60))).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(8L, new Date())).isFalse();
+    }
+
+    @Test
+    void isRevoked_tokenIssuedInSameSecondAfterRevocation_shouldBeAccepted() {
+        tokenRevocationStore.revoke(7L);
+
+        assertThat(tokenRevocationStore.isRevoked(7L, new Date())).isFalse();
+        assertThat(tokenRevocationStore.isRevoked(7L, secondsAgo(2))).isTrue();
+    }
+
+    private static Date secondsAgo(long seconds) {
+        return Date.from(Instant.now().minusSeconds(seconds));
+    }
+}
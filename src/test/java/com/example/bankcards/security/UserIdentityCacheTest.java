@@ -0,0 +1,57 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UserIdentityCacheTest {
+
+    private UserRepository userRepository;
+    private UserIdentityCache userIdentityCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userIdentityCache = new UserIdentityCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("Иван");
+        user.setRoles(List.of(role));
+        when(userRepository.findByUsername("Иван")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void get_repeatedLookup_shouldQueryRepositoryOnce() {
+        assertThat(userIdentityCache.get("Иван")).contains(new UserIdentity(1L, "Иван", List.of("ROLE_USER")));
+        assertThat(userIdentityCache.get("Иван")).isPresent();
+
+        verify(userRepository, times(1)).findByUsername("Иван");
+    }
+
+    @Test
+    void invalidateById_shouldForceReload() {
+        userIdentityCache.get("Иван");
+        userIdentityCache.invalidate(1L);
+        userIdentityCache.get("Иван");
+
+        verify(userRepository, times(2)).findByUsername("Иван");
+    }
+
+    @Test
+    void get_unknownUser_shouldBeEmpty() {
+        assertThat(userIdentityCache.get("unknown")).isEmpty();
+    }
+}
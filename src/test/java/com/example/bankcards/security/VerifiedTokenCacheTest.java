@@ -0,0 +1,50 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private JwtUtil jwtUtil;
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        String secret = Base64.getEncoder().encodeToString("secret1234567890secret1234567890".getBytes());
+        jwtUtil = spy(new JwtUtil(secret, Duration.ofHours(1)));
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, meterRegistry, 100);
+    }
+
+    @Test
+    void getClaims_repeatedToken_shouldVerifySignatureOnce() {
+        String token = jwtUtil.generateToken(new User("Иван Иванов", "pass", List.of()));
+
+        assertThat(verifiedTokenCache.getClaims(token)).isPresent();
+        assertThat(verifiedTokenCache.getClaims(token)).isPresent();
+
+        verify(jwtUtil, times(1)).parseClaims(token);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.verify").tag("result", "valid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getClaims_invalidToken_shouldNotBeCached() {
+        assertThat(verifiedTokenCache.getClaims("invalid")).isEmpty();
+        assertThat(verifiedTokenCache.getClaims("invalid")).isEmpty();
+
+        verify(jwtUtil, times(2)).parseClaims("invalid");
+        assertThat(meterRegistry.get("jwt.verify").tag("result", "invalid").timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.AuthRequest;
+import com.example.bankcards.dto.AuthResponse;
+import com.example.bankcards.dto.RefreshRequest;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthServiceRefreshTest extends PostgresIntegrationTest {
+
+    private static final String PASSWORD = "refresh-password";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("refresh-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRoles(Set.of(roleRepository.findByName("ROLE_USER").orElseThrow()));
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void refresh_shouldRotateTokenAndKeepIdentity() {
+        AuthResponse login = login();
+
+        AuthResponse refreshed = authService.refresh(refreshRequest(login.getRefreshToken()));
+
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+        assertThat(jwtUtil.getUsername(refreshed.getToken())).isEqualTo(user.getUsername());
+        assertThat(jwtUtil.getRoles(refreshed.getToken())).containsExactly("ROLE_USER");
+        assertThat(authService.refresh(refreshRequest(refreshed.getRefreshToken())).getToken()).isNotBlank();
+    }
+
+    @Test
+    void refresh_reusedToken_shouldRevokeWholeFamily() {
+        AuthResponse login = login();
+        AuthResponse refreshed = authService.refresh(refreshRequest(login.getRefreshToken()));
+
+        assertThatThrownBy(() -> authService.refresh(refreshRequest(login.getRefreshToken())))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh-токен уже использован, сессия отозвана");
+        assertThatThrownBy(() -> authService.refresh(refreshRequest(refreshed.getRefreshToken())))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh-токен отозван");
+    }
+
+    @Test
+    void refresh_unknownToken_shouldBeRejected() {
+        assertThatThrownBy(() -> authService.refresh(refreshRequest("unknown")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Недействительный refresh-токен");
+    }
+
+    private AuthResponse login() {
+        AuthRequest request = new AuthRequest();
+        request.setUsername(user.getUsername());
+        request.setPassword(PASSWORD);
+        return (AuthResponse) authService.authenticateUser(request).getBody();
+    }
+
+    private static RefreshRequest refreshRequest(String token) {
+        RefreshRequest request = new RefreshRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
+import com.example.bankcards.dto.TransferLegResult;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class BatchTransferServiceTest extends PostgresIntegrationTest {
+
+    private static final int BENCHMARK_CARDS = 50;
+    private static final int BENCHMARK_LEGS = 500;
+
+    @Autowired
+    private BatchTransferService batchTransferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("batch-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserDetailsImpl(owner.getId(), owner.getUsername(), null, List.of()), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transfer_shouldApplyLegsInOrderAndReportRejections() {
+        Card first = cardRepository.save(newCard(owner, CardStatus.ACTIVE, 100));
+        Card second = cardRepository.save(newCard(owner, CardStatus.ACTIVE, 0));
+        Card blocked = cardRepository.save(newCard(owner, CardStatus.BLOCKED, 0));
+        long transfersBefore = transferRepository.count();
+
+        BatchTransferResponse response = batchTransferService.transfer(batch(
+                leg(first, second, 70),
+                leg(second, first, 20),
+                leg(first, second, 60),
+                leg(first, blocked, 10)));
+
+        assertThat(response.getApplied()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(TransferLegResult::getStatus).containsExactly(
+                TransferLegResult.Status.APPLIED,
+                TransferLegResult.Status.APPLIED,
+                TransferLegResult.Status.REJECTED,
+                TransferLegResult.Status.REJECTED);
+        assertThat(response.getResults().get(2).getMessage()).isEqualTo("Недостаточно средств на карте-источнике");
+        assertThat(response.getResults().get(0).getTransferId()).isNotNull();
+        assertThat(cardRepository.findById(first.getId()).orElseThrow().getBalance()).isEqualByComparingTo("50");
+        assertThat(cardRepository.findById(second.getId()).orElseThrow().getBalance()).isEqualByComparingTo("50");
+        assertThat(transferRepository.count()).isEqualTo(transfersBefore + 2);
+    }
+
+    @Test
+    void transfer_shouldRejectWholeBatchWhenLegIsMalformed() {
+        Card first = cardRepository.save(newCard(owner, CardStatus.ACTIVE, 100));
+        Card second = cardRepository.save(newCard(owner, CardStatus.ACTIVE, 0));
+
+        assertThatThrownBy(() -> batchTransferService.transfer(batch(leg(first, second, 10), leg(first, second, 0))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Перевод 1: сумма перевода должна быть положительной");
+        assertThat(cardRepository.findById(first.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void transfer_shouldOutperformSingleTransfers() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_CARDS; i++) {
+            cards.add(cardRepository.save(newCard(owner, CardStatus.ACTIVE, 1_000)));
+        }
+        List<TransferRequest> legs = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_LEGS; i++) {
+            legs.add(leg(cards.get(i % BENCHMARK_CARDS), cards.get((i * 7 + 1) % BENCHMARK_CARDS), 1));
+        }
+        legs.removeIf(leg -> leg.getFromCardId().equals(leg.getToCardId()));
+
+        long singleStartedAt = System.nanoTime();
+        for (TransferRequest leg : legs) {
+            cardService.transferBetweenCards(leg, null);
+        }
+        double singleSeconds = (System.nanoTime() - singleStartedAt) / 1_000_000_000.0;
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(legs);
+        long batchStartedAt = System.nanoTime();
+        BatchTransferResponse response = batchTransferService.transfer(request);
+        double batchSeconds = (System.nanoTime() - batchStartedAt) / 1_000_000_000.0;
+
+        log.info("Переводов: {}; по одному: {} переводов/с, пакетом: {} переводов/с",
+                legs.size(), String.format("%.0f", legs.size() / singleSeconds), String.format("%.0f", legs.size() / batchSeconds));
+
+        assertThat(response.getApplied()).isEqualTo(legs.size());
+        assertThat(batchSeconds).isLessThan(singleSeconds);
+        BigDecimal total = cardRepository.findAllById(cards.stream().map(Card::getId).toList()).stream()
+                .map(Card::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(1_000L * BENCHMARK_CARDS));
+    }
+
+    private static BatchTransferRequest batch(TransferRequest... legs) {
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(legs));
+        return request;
+    }
+
+    private static TransferRequest leg(Card from, Card to, long amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(from.getId());
+        request.setToCardId(to.getId());
+        request.setAmount(BigDecimal.valueOf(amount));
+        return request;
+    }
+
+    private static Card newCard(User owner, CardStatus status, long balance) {
+        Card card = new Card();
+        card.setNumber(String.format("%016d", Math.abs(UUID.randomUUID().getMostSignificantBits() % 10_000_000_000_000_000L)));
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(status);
+        card.setBalance(BigDecimal.valueOf(balance));
+        card.setUser(owner);
+        return card;
+    }
+}
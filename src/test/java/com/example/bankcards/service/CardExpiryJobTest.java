@@ -0,0 +1,74 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardExpiryJobTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentSweeps_shouldExpireEachDueCardOnce() {
+        User owner = new User();
+        owner.setUsername("expiry-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+
+        List<Long> due = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            due.add(card(owner, CardStatus.ACTIVE, LocalDateTime.now().minusDays(i + 1)));
+        }
+        due.add(card(owner, CardStatus.BLOCK_REQUESTED, LocalDateTime.now().minusHours(1)));
+        Long blocked = card(owner, CardStatus.BLOCKED, LocalDateTime.now().minusDays(1));
+        Long valid = card(owner, CardStatus.ACTIVE, LocalDateTime.now().plusYears(1));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CardExpiryJob first = new CardExpiryJob(cardRepository, transactionTemplate, meterRegistry, 3, Integer.MAX_VALUE);
+        CardExpiryJob second = new CardExpiryJob(cardRepository, transactionTemplate, meterRegistry, 3, Integer.MAX_VALUE);
+        double expiredBefore = meterRegistry.get("cards.expiry.expired").counter().count();
+
+        CompletableFuture<Integer> a = CompletableFuture.supplyAsync(first::expireDueCards);
+        CompletableFuture<Integer> b = CompletableFuture.supplyAsync(second::expireDueCards);
+
+        int swept = a.join() + b.join();
+        assertThat(cardRepository.findAllById(due)).allSatisfy(card -> assertThat(card.getStatus()).isEqualTo(CardStatus.EXPIRED));
+        assertThat(cardRepository.findById(blocked).orElseThrow().getStatus()).isEqualTo(CardStatus.BLOCKED);
+        assertThat(cardRepository.findById(valid).orElseThrow().getStatus()).isEqualTo(CardStatus.ACTIVE);
+        assertThat(meterRegistry.get("cards.expiry.expired").counter().count() - expiredBefore).isEqualTo(swept);
+    }
+
+    private Long card(User owner, CardStatus status, LocalDateTime expirationDate) {
+        Card card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber());
+        card.setExpirationDate(expirationDate);
+        card.setStatus(status);
+        card.setBalance(BigDecimal.TEN);
+        card.setUser(owner);
+        return cardRepository.save(card).getId();
+    }
+}
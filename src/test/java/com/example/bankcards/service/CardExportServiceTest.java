@@ -0,0 +1,100 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CardExportServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardExportService cardExportService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("export, \"" + UUID.randomUUID().toString().substring(0, 8) + "\"");
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+
+        card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber().substring(0, 12) + "9876");
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(new BigDecimal("12.50"));
+        card.setUser(owner);
+        card = cardRepository.save(card);
+    }
+
+    @Test
+    void exportCards_csv_shouldWriteMaskedRowsWithEscapedOwner() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = cardExportService.exportCards(CardExportService.Format.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize((int) exported + 1);
+        assertThat(lines.get(0)).isEqualTo("id,number,expirationDate,status,balance,createdAt,ownerUsername");
+        String row = lines.stream().filter(line -> line.startsWith(card.getId() + ",")).findFirst().orElseThrow();
+        assertThat(row).contains(",**** **** **** 9876,", ",ACTIVE,12.50,")
+                .endsWith(",\"" + owner.getUsername().replace("\"", "\"\"") + "\"");
+        assertThat(output.toString(StandardCharsets.UTF_8)).doesNotContain(card.getNumber());
+    }
+
+    @Test
+    void exportCards_ndjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = cardExportService.exportCards(CardExportService.Format.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize((int) exported);
+        JsonNode row = null;
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == card.getId()) {
+                row = node;
+            }
+        }
+        assertThat(row).isNotNull();
+        assertThat(row.get("number").asText()).isEqualTo("**** **** **** 9876");
+        assertThat(row.get("ownerUsername").asText()).isEqualTo(owner.getUsername());
+    }
+
+    @Test
+    void parseFormat_unknown_shouldThrow() {
+        assertThatThrownBy(() -> CardExportService.Format.parse("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Неподдерживаемый формат выгрузки: xml");
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCardIssueItem;
+import com.example.bankcards.dto.BulkCardIssueRequest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class CardIssuanceServiceTest extends PostgresIntegrationTest {
+
+    private static final int CARDS_PER_USER = 2500;
+
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        first = user();
+        second = user();
+    }
+
+    @Test
+    void issueCards_shouldInsertAllCardsWithUniqueLuhnValidNumbers() throws Exception {
+        BulkCardIssueRequest request = new BulkCardIssueRequest();
+        request.setItems(List.of(
+                new BulkCardIssueItem(first.getId(), CARDS_PER_USER, BigDecimal.valueOf(100)),
+                new BulkCardIssueItem(second.getId(), CARDS_PER_USER, null)));
+
+        FlushCountingOutputStream output = new FlushCountingOutputStream();
+        long startedAt = System.nanoTime();
+        long written = cardIssuanceService.issueCards(cardIssuanceService.prepare(request), output);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        log.info("Выпущено {} карт за {} с, {} карт/с", written,
+                String.format("%.2f", seconds), String.format("%.0f", written / seconds));
+
+        List<CardDto> issued = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).lines().toList()) {
+            issued.add(objectMapper.readValue(line, CardDto.class));
+        }
+        assertThat(written).isEqualTo(2 * CARDS_PER_USER);
+        assertThat(issued).hasSize(2 * CARDS_PER_USER);
+        assertThat(output.flushes).isGreaterThanOrEqualTo(2 * CARDS_PER_USER / 1000);
+        assertThat(issued).extracting(CardDto::getId).doesNotHaveDuplicates();
+        assertThat(issued).allSatisfy(card -> assertThat(card.getNumber()).startsWith("**** **** **** "));
+        assertThat(issued.get(0).getOwnerUsername()).isEqualTo(first.getUsername());
+        assertThat(issued.get(issued.size() - 1).getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+
+        List<Card> stored = cardRepository.findAllById(issued.stream().map(CardDto::getId).toList());
+        assertThat(stored).hasSize(2 * CARDS_PER_USER);
+        assertThat(stored).allSatisfy(card -> {
+            assertThat(CardNumberUtil.isLuhnValid(card.getNumber())).isTrue();
+            assertThat(card.getNumberHash()).isEqualTo(cardNumberHasher.hashNumber(card.getNumber()));
+        });
+
+        CardDto single = cardService.createCard(new CreateCardRequest(first.getId(), BigDecimal.TEN));
+        assertThat(issued).extracting(CardDto::getId).doesNotContain(single.getId());
+    }
+
+    @Test
+    void issueCards_unknownUser_shouldThrow() {
+        BulkCardIssueRequest request = new BulkCardIssueRequest();
+        request.setItems(List.of(new BulkCardIssueItem(Long.MAX_VALUE, 1, BigDecimal.ONE)));
+
+        assertThrows(EntityNotFoundException.class, () -> cardIssuanceService.prepare(request));
+    }
+
+    @Test
+    void issueCards_tooManyCards_shouldThrow() {
+        BulkCardIssueRequest request = new BulkCardIssueRequest();
+        request.setItems(List.of(new BulkCardIssueItem(first.getId(), 10_001, BigDecimal.ONE)));
+
+        assertThrows(IllegalArgumentException.class, () -> cardIssuanceService.prepare(request));
+    }
+
+    private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    private User user() {
+        User user = new User();
+        user.setUsername("bulk-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
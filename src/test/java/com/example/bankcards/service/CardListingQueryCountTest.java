@@ -0,0 +1,126 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardListingQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "listing-" + UUID.randomUUID().toString().substring(0, 8);
+        holder = saveUser(prefix + "-holder");
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User owner = saveUser(prefix + "-" + i);
+            cards.add(newCard(owner, i));
+            cards.add(newCard(holder, i));
+        }
+        cardRepository.saveAll(cards);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserDetailsImpl(holder.getId(), holder.getUsername(), null, List.of()), null, List.of()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getAllCards_page_shouldRunSelectAndCountOnly() {
+        Page<CardDto> page = cardService.getAllCards(0, PAGE_SIZE);
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent()).allSatisfy(card -> assertThat(card.getOwnerUsername()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getAllCards_cursor_shouldRunSingleSelect() {
+        CursorPage<CardDto> first = cardService.getAllCards("", PAGE_SIZE);
+        CursorPage<CardDto> next = cardService.getAllCards(first.getNextCursor(), PAGE_SIZE);
+
+        assertThat(first.getContent()).hasSize(PAGE_SIZE);
+        assertThat(next.getContent()).isNotEmpty();
+        assertThat(next.getContent().get(0).getBalance())
+                .isLessThanOrEqualTo(first.getContent().get(PAGE_SIZE - 1).getBalance());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getUserCards_shouldRunSelectAndCountOnly() {
+        Page<CardDto> page = cardService.getUserCards(0, PAGE_SIZE, "");
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent()).allSatisfy(card -> {
+            assertThat(card.getOwnerUsername()).isEqualTo(holder.getUsername());
+            assertThat(card.getNumber()).startsWith("**** **** **** ");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private static Card newCard(User owner, int index) {
+        Card card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber());
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(1_000_000L + index));
+        card.setUser(owner);
+        return card;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BlockRequestDecision;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CardModerationServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardModerationService cardModerationService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.findAll().stream()
+                .filter(card -> card.getStatus() == CardStatus.BLOCK_REQUESTED)
+                .forEach(card -> {
+                    card.setStatus(CardStatus.BLOCKED);
+                    card.setBlockRequestedAt(null);
+                    cardRepository.save(card);
+                });
+        owner = new User();
+        owner.setUsername("moderation-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+    }
+
+    @Test
+    void getBlockRequests_shouldPageOldestFirstWithCursor() {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(card(CardStatus.BLOCK_REQUESTED, base.plusMinutes(5 - i)));
+        }
+        card(CardStatus.ACTIVE, null);
+        Collections.reverse(expected);
+
+        CursorPage<BlockRequestDto> first = cardModerationService.getBlockRequests(null, 3);
+        CursorPage<BlockRequestDto> second = cardModerationService.getBlockRequests(first.getNextCursor(), 3);
+
+        assertThat(first.getContent()).extracting(BlockRequestDto::getCardId).containsExactlyElementsOf(expected.subList(0, 3));
+        assertThat(second.getContent()).extracting(BlockRequestDto::getCardId).containsExactlyElementsOf(expected.subList(3, 5));
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(first.getContent().get(0).getNumber()).startsWith("**** **** **** ");
+        assertThat(first.getContent().get(0).getOwnerUsername()).isEqualTo(owner.getUsername());
+    }
+
+    @Test
+    void decide_shouldUpdateOnlyPendingCardsInOneStatement() {
+        Long approved = card(CardStatus.BLOCK_REQUESTED, LocalDateTime.now());
+        Long rejected = card(CardStatus.BLOCK_REQUESTED, LocalDateTime.now());
+        Long active = card(CardStatus.ACTIVE, null);
+
+        BlockRequestDecisionResponse approve = cardModerationService.decide(
+                new BlockRequestDecision(List.of(approved, active), BlockRequestDecision.Action.APPROVE));
+        BlockRequestDecisionResponse reject = cardModerationService.decide(
+                new BlockRequestDecision(List.of(rejected), BlockRequestDecision.Action.REJECT));
+
+        assertThat(approve.getRequested()).isEqualTo(2);
+        assertThat(approve.getUpdated()).isEqualTo(1);
+        assertThat(reject.getUpdated()).isEqualTo(1);
+        Card approvedCard = cardRepository.findById(approved).orElseThrow();
+        assertThat(approvedCard.getStatus()).isEqualTo(CardStatus.BLOCKED);
+        assertThat(approvedCard.getBlockRequestedAt()).isNull();
+        assertThat(cardRepository.findById(rejected).orElseThrow().getStatus()).isEqualTo(CardStatus.ACTIVE);
+        assertThat(cardRepository.findById(active).orElseThrow().getStatus()).isEqualTo(CardStatus.ACTIVE);
+    }
+
+    @Test
+    void decide_withoutAction_shouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cardModerationService.decide(new BlockRequestDecision(List.of(1L), null)));
+    }
+
+    private Long card(CardStatus status, LocalDateTime requestedAt) {
+        Card card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber());
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(status);
+        card.setBlockRequestedAt(requestedAt);
+        card.setBalance(BigDecimal.TEN);
+        card.setUser(owner);
+        return cardRepository.save(card).getId();
+    }
+}
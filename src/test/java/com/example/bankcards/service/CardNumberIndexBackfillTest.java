@@ -0,0 +1,71 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardNumberIndexBackfillTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardNumberIndexBackfill cardNumberIndexBackfill;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardNumberEncryptor cardNumberEncryptor;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    @Test
+    void backfill_duplicateLegacyNumbers_shouldIndexOneAndSkipTheRest() {
+        User owner = new User();
+        owner.setUsername("backfill-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+        String number = CardNumberUtil.generateCardNumber();
+        String unique = CardNumberUtil.generateCardNumber();
+
+        Long first = legacyCard(owner, number);
+        Long second = legacyCard(owner, number);
+        Long other = legacyCard(owner, unique);
+
+        cardNumberIndexBackfill.backfill();
+        cardNumberIndexBackfill.backfill();
+
+        assertThat(numberHash(first)).isEqualTo(cardNumberHasher.hashNumber(number));
+        assertThat(numberHash(second)).isNull();
+        assertThat(numberHash(other)).isEqualTo(cardNumberHasher.hashNumber(unique));
+    }
+
+    private Long legacyCard(User owner, String number) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.queryForObject("""
+                        insert into cards (number, expiration_date, status, balance, created_at, user_id)
+                        values (?, ?, ?, ?, ?, ?) returning id
+                        """, Long.class, cardNumberEncryptor.convertToDatabaseColumn(number),
+                Timestamp.valueOf(LocalDateTime.now().plusYears(4)), CardStatus.ACTIVE.name(), BigDecimal.TEN, now, owner.getId());
+    }
+
+    private String numberHash(Long cardId) {
+        return jdbcTemplate.queryForObject("select number_hash from cards where id = ?", String.class, cardId);
+    }
+}
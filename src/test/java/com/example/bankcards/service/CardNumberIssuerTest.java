@@ -0,0 +1,49 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardNumberIssuerTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardNumberIssuer cardNumberIssuer;
+
+    @Test
+    void concurrentIssuing_shouldNeverRepeatNumbers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                List<String> numbers = new ArrayList<>();
+                for (int i = 0; i < 250; i++) {
+                    numbers.add(cardNumberIssuer.next());
+                }
+                numbers.addAll(cardNumberIssuer.allocate(250));
+                return numbers;
+            }));
+        }
+        List<String> issued = new ArrayList<>();
+        for (Future<List<String>> future : futures) {
+            issued.addAll(future.get());
+        }
+        executor.shutdown();
+
+        assertThat(issued).hasSize(4000);
+        assertThat(new HashSet<>(issued)).hasSize(4000);
+        assertThat(issued).allSatisfy(number -> {
+            assertThat(number).startsWith("220070").hasSize(16);
+            assertThat(CardNumberUtil.isLuhnValid(number)).isTrue();
+        });
+    }
+}
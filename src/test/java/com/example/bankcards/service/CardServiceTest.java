@@ -2,25 +2,39 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.TransferRejectedException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.CurrentUserResolver;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,6 +51,30 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CardNumberIssuer cardNumberIssuer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TransferMetrics transferMetrics = new TransferMetrics(meterRegistry);
+
+    @Spy
+    private CardListingMetrics cardListingMetrics = new CardListingMetrics(meterRegistry,
+            new CardNumberEncryptor("HI+CGVOKpbpb/ejYTYXp3oe+Dhevif5eZDI7p4taKjQ=", 1, ""));
+
     @InjectMocks
     private CardService cardService;
 
@@ -54,6 +92,7 @@ class CardServiceTest {
         fromCard.setId(1L);
         fromCard.setNumber("1111222233334444");
         fromCard.setStatus(CardStatus.ACTIVE);
+        fromCard.setExpirationDate(LocalDateTime.now().plusYears(4));
         fromCard.setBalance(BigDecimal.valueOf(1000));
         fromCard.setUser(user);
 
@@ -61,12 +100,16 @@ class CardServiceTest {
         toCard.setId(2L);
         toCard.setNumber("5555666677778888");
         toCard.setStatus(CardStatus.ACTIVE);
+        toCard.setExpirationDate(LocalDateTime.now().plusYears(4));
         toCard.setBalance(BigDecimal.valueOf(500));
         toCard.setUser(user);
 
         SecurityContextHolder.getContext().setAuthentication(
                 new UsernamePasswordAuthenticationToken("Иван Иванов", "password")
         );
+        lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Long>>getArgument(3).get());
+        lenient().when(transferRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
@@ -76,17 +119,37 @@ class CardServiceTest {
         request.setToCardId(toCard.getId());
         request.setAmount(BigDecimal.valueOf(200));
 
-        when(userRepository.findByUsername("Иван Иванов")).thenReturn(Optional.of(user));
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE)).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE)).thenReturn(1);
+
+        cardService.transferBetweenCards(request, null);
 
-        cardService.transferBetweenCards(request);
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).debit(1L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE);
+        inOrder.verify(cardRepository).credit(2L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE);
+        verify(cardRepository, never()).findById(any());
+        verify(transferRepository).save(argThat(transfer -> transfer.getFromCardId().equals(1L)
+                && transfer.getToCardId().equals(2L)
+                && transfer.getAmount().compareTo(BigDecimal.valueOf(200)) == 0));
+    }
 
-        assertThat(fromCard.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(800));
-        assertThat(toCard.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(700));
+    @Test
+    void transferBetweenCards_toLowerId_shouldLockLowerIdFirst() {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(toCard.getId());
+        request.setToCardId(fromCard.getId());
+        request.setAmount(BigDecimal.valueOf(200));
 
-        verify(cardRepository).save(fromCard);
-        verify(cardRepository).save(toCard);
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.debit(2L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE)).thenReturn(1);
+        when(cardRepository.credit(1L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE)).thenReturn(1);
+
+        cardService.transferBetweenCards(request, null);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).credit(1L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE);
+        inOrder.verify(cardRepository).debit(2L, 1L, BigDecimal.valueOf(200), CardStatus.ACTIVE);
     }
 
     @Test
@@ -96,11 +159,31 @@ class CardServiceTest {
         request.setToCardId(toCard.getId());
         request.setAmount(BigDecimal.valueOf(2000));
 
-        when(userRepository.findByUsername("Иван Иванов")).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(2000), CardStatus.ACTIVE)).thenReturn(0);
         when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
 
-        assertThrows(IllegalStateException.class, () -> cardService.transferBetweenCards(request));
+        assertThrows(IllegalStateException.class, () -> cardService.transferBetweenCards(request, null));
+        verifyNoInteractions(transferRepository);
+        assertThat(meterRegistry.get("bank.transfers").tag("outcome", "failure")
+                .tag("reason", "insufficient_funds").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void transferBetweenCards_expiredCard_shouldBeRejected() {
+        fromCard.setExpirationDate(LocalDateTime.now().minusDays(1));
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(100));
+
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100), CardStatus.ACTIVE)).thenReturn(0);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+
+        TransferRejectedException e = assertThrows(TransferRejectedException.class,
+                () -> cardService.transferBetweenCards(request, null));
+        assertThat(e.getReason()).isEqualTo(TransferRejectedException.CARD_EXPIRED);
     }
 
     @Test
@@ -114,24 +197,52 @@ class CardServiceTest {
         request.setToCardId(toCard.getId());
         request.setAmount(BigDecimal.valueOf(100));
 
-        when(userRepository.findByUsername("Иван Иванов")).thenReturn(Optional.of(user));
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100), CardStatus.ACTIVE)).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(100), CardStatus.ACTIVE)).thenReturn(0);
         when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
 
-        assertThrows(AccessDeniedException.class, () -> cardService.transferBetweenCards(request));
+        assertThrows(AccessDeniedException.class, () -> cardService.transferBetweenCards(request, null));
+    }
+
+    @Test
+    void transferBetweenCards_missingCardId_shouldThrow() {
+        TransferRequest request = new TransferRequest();
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(100));
+
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.transferBetweenCards(request, null));
+        verify(cardRepository, never()).debit(any(), any(), any(), any());
+        verifyNoInteractions(transferRepository);
     }
 
     @Test
     void createCard_existingUser_shouldReturnDto() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cardNumberIssuer.next()).thenReturn("2200700000000018");
 
         CardDto dto = cardService.createCard(new CreateCardRequest(1L, BigDecimal.valueOf(500)));
 
         assertThat(dto.getOwnerUsername()).isEqualTo(user.getUsername());
-        assertThat(dto.getNumber()).startsWith("****");
+        assertThat(dto.getNumber()).isEqualTo("**** **** **** 0018");
         verify(cardRepository).save(any(Card.class));
     }
 
+    @Test
+    void createCard_takenNumber_shouldIssueNext() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cardNumberIssuer.next()).thenReturn("2200700000000018", "2200700000000026");
+        when(cardNumberHasher.hashNumber("2200700000000018")).thenReturn("taken");
+        when(cardNumberHasher.hashNumber("2200700000000026")).thenReturn("free");
+        when(cardRepository.existsByNumberHash("taken")).thenReturn(true);
+
+        CardDto dto = cardService.createCard(new CreateCardRequest(1L, BigDecimal.valueOf(500)));
+
+        assertThat(dto.getNumber()).isEqualTo("**** **** **** 0026");
+    }
+
     @Test
     void createCard_nonExistingUser_shouldThrow() {
         when(userRepository.findById(12245L)).thenReturn(Optional.empty());
@@ -157,4 +268,91 @@ class CardServiceTest {
 
         assertThrows(IllegalStateException.class, () -> cardService.blockCard(1L));
     }
+
+    @Test
+    void activateCard_blocked_shouldActivate() {
+        fromCard.setStatus(CardStatus.BLOCKED);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+
+        cardService.activateCard(1L);
+
+        assertThat(fromCard.getStatus()).isEqualTo(CardStatus.ACTIVE);
+        verify(cardRepository).save(fromCard);
+    }
+
+    @Test
+    void activateCard_expired_shouldThrow() {
+        fromCard.setStatus(CardStatus.EXPIRED);
+        fromCard.setExpirationDate(LocalDateTime.now().minusDays(1));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+
+        assertThrows(IllegalStateException.class, () -> cardService.activateCard(1L));
+        assertThat(fromCard.getStatus()).isEqualTo(CardStatus.EXPIRED);
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void getUserCards_lastDigitsFilter_shouldQueryByHash() {
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardNumberHasher.hashLastDigits("4444")).thenReturn("hash-4444");
+        when(cardRepository.findCardDtosByUserIdAndLast4Hash(eq(1L), eq("hash-4444"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(dto(fromCard))));
+
+        Page<CardDto> cards = cardService.getUserCards(0, 10, "4444");
+
+        assertThat(cards.getContent()).hasSize(1);
+        assertThat(cards.getContent().get(0).getNumber()).isEqualTo("**** **** **** 4444");
+        verify(cardRepository, never()).findByUser(user);
+    }
+
+    @Test
+    void getUserCards_emptyFilter_shouldUsePagedQuery() {
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+        when(cardRepository.findCardDtosByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(dto(fromCard), dto(toCard))));
+
+        Page<CardDto> cards = cardService.getUserCards(0, 10, "");
+
+        assertThat(cards.getContent()).hasSize(2);
+        verifyNoInteractions(cardNumberHasher);
+        assertThat(meterRegistry.get("bank.card-listing").tag("listing", "user").tag("phase", "db").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("bank.card-listing").tag("listing", "user").tag("phase", "decrypt").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getUserCards_partialFilter_shouldThrow() {
+        when(currentUserResolver.getCurrentUserId()).thenReturn(1L);
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.getUserCards(0, 10, "44"));
+    }
+
+    @Test
+    void getAllCards_cursor_shouldContinueAfterLastBalanceAndId() {
+        when(cardRepository.findFirstCardDtosByBalance(any(Pageable.class))).thenReturn(List.of(dto(fromCard), dto(toCard)));
+        when(cardRepository.findNextCardDtosByBalance(eq(new BigDecimal("500")), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        CursorPage<CardDto> first = cardService.getAllCards("", 2);
+        CursorPage<CardDto> next = cardService.getAllCards(first.getNextCursor(), 2);
+
+        assertThat(first.getContent()).extracting(CardDto::getId).containsExactly(1L, 2L);
+        assertThat(first.getContent()).extracting(CardDto::getNumber)
+                .containsExactly("**** **** **** 4444", "**** **** **** 8888");
+        assertThat(first.getNextCursor()).isNotBlank();
+        assertThat(next.getContent()).isEmpty();
+        assertThat(next.getNextCursor()).isNull();
+        verify(cardRepository, never()).findCardDtos(any(Pageable.class));
+    }
+
+    @Test
+    void getAllCards_malformedCursor_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> cardService.getAllCards("not-a-cursor", 10));
+    }
+
+    private static CardDto dto(Card card) {
+        return new CardDto(card.getId(), card.getNumber(), card.getExpirationDate(), card.getStatus(),
+                card.getBalance(), card.getCreatedAt(), card.getUser().getUsername());
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class CardTransferConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final int CARDS = 4;
+    private static final BigDecimal START_BALANCE = BigDecimal.valueOf(100);
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("stress-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < CARDS; i++) {
+            Card card = new Card();
+            card.setNumber(String.format("%016d", ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L)));
+            card.setExpirationDate(LocalDateTime.now().plusYears(4));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(START_BALANCE);
+            card.setUser(owner);
+            cardIds.add(cardRepository.save(card).getId());
+        }
+    }
+
+    @Test
+    void concurrentOpposingTransfers_shouldPreserveTotalBalanceWithoutDeadlocks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        new UserDetailsImpl(owner.getId(), owner.getUsername(), null, List.of()), null, List.of()));
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(CARDS);
+                    int to = (from + 1 + random.nextInt(CARDS - 1)) % CARDS;
+                    TransferRequest request = new TransferRequest();
+                    request.setFromCardId(cardIds.get(from));
+                    request.setToCardId(cardIds.get(to));
+                    request.setAmount(BigDecimal.valueOf(random.nextInt(1, 40)));
+                    try {
+                        cardService.transferBetweenCards(request, i % 2 == 0 ? null : UUID.randomUUID().toString());
+                        succeeded.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+                SecurityContextHolder.clearContext();
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        executor.shutdown();
+
+        int total = THREADS * TRANSFERS_PER_THREAD;
+        log.info("Переводов: {} (успешных {}, отклонено {}) за {} с, {} переводов/с",
+                total, succeeded.get(), rejected.get(), String.format("%.2f", seconds), String.format("%.0f", total / seconds));
+
+        assertThat(unexpected).isEmpty();
+        assertThat(succeeded.get() + rejected.get()).isEqualTo(total);
+
+        List<Card> cards = cardRepository.findAllById(cardIds);
+        BigDecimal totalBalance = cards.stream()
+                .map(Card::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(totalBalance).isEqualByComparingTo(START_BALANCE.multiply(BigDecimal.valueOf(CARDS)));
+        assertThat(cards).allSatisfy(card -> assertThat(card.getBalance()).isGreaterThanOrEqualTo(BigDecimal.ZERO));
+    }
+}
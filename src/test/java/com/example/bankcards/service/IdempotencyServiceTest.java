@@ -0,0 +1,129 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Card first;
+    private Card second;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("idem-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+        first = cardRepository.save(newCard(owner));
+        second = cardRepository.save(newCard(owner));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserDetailsImpl(owner.getId(), owner.getUsername(), null, List.of()), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transferWithSameKey_shouldBeAppliedOnce() {
+        String key = UUID.randomUUID().toString();
+        long transfersBefore = transferRepository.count();
+        double succeededBefore = succeededTransfers();
+
+        cardService.transferBetweenCards(request(first, second, "25.00"), key);
+        cardService.transferBetweenCards(request(first, second, "25"), key);
+
+        assertThat(succeededTransfers() - succeededBefore).isEqualTo(1);
+        assertThat(cardRepository.findById(first.getId()).orElseThrow().getBalance()).isEqualByComparingTo("75");
+        assertThat(cardRepository.findById(second.getId()).orElseThrow().getBalance()).isEqualByComparingTo("125");
+        assertThat(transferRepository.count()).isEqualTo(transfersBefore + 1);
+    }
+
+    @Test
+    void transferWithSameKeyAndDifferentPayload_shouldBeRejected() {
+        String key = UUID.randomUUID().toString();
+        cardService.transferBetweenCards(request(first, second, "10"), key);
+
+        assertThatThrownBy(() -> cardService.transferBetweenCards(request(first, second, "20"), key))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Ключ идемпотентности уже использован для другого запроса");
+        assertThat(cardRepository.findById(first.getId()).orElseThrow().getBalance()).isEqualByComparingTo("90");
+    }
+
+    @Test
+    void failedTransfer_shouldNotConsumeKey() {
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> cardService.transferBetweenCards(request(first, second, "500"), key))
+                .isInstanceOf(IllegalStateException.class);
+        cardService.transferBetweenCards(request(first, second, "50"), key);
+
+        assertThat(cardRepository.findById(first.getId()).orElseThrow().getBalance()).isEqualByComparingTo("50");
+    }
+
+    private double succeededTransfers() {
+        Counter counter = meterRegistry.find("bank.transfers")
+                .tags("mode", TransferMetrics.SINGLE, "outcome", "success")
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static TransferRequest request(Card from, Card to, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(from.getId());
+        request.setToCardId(to.getId());
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static Card newCard(User owner) {
+        Card card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber());
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(100));
+        card.setUser(owner);
+        return card;
+    }
+}
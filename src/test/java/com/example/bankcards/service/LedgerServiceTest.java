@@ -0,0 +1,130 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBalanceDto;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Card first;
+    private Card second;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("ledger-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+        first = cardRepository.save(newCard(owner));
+        second = cardRepository.save(newCard(owner));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserDetailsImpl(owner.getId(), owner.getUsername(), null, List.of()), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getCardTransfers_shouldPageNewestFirstWithCursor() {
+        transfer(first, second, 10);
+        transfer(second, first, 20);
+        transfer(first, second, 30);
+
+        CursorPage<TransferDto> page = ledgerService.getCardTransfers(first.getId(), null, 2);
+        CursorPage<TransferDto> next = ledgerService.getCardTransfers(first.getId(), page.getNextCursor(), 2);
+
+        assertThat(page.getContent()).extracting(TransferDto::getAmount)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.valueOf(30), BigDecimal.valueOf(20));
+        assertThat(next.getContent()).extracting(TransferDto::getAmount)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.valueOf(10));
+        assertThat(next.getNextCursor()).isNull();
+        assertThat(page.getContent()).allSatisfy(transfer -> assertThat(transfer.getCreatedAt()).isNotNull());
+    }
+
+    @Test
+    void getBalanceAt_shouldCombineSnapshotAndLedgerTail() throws InterruptedException {
+        transfer(first, second, 100);
+        LocalDateTime afterFirstTransfer = pause();
+        balanceSnapshotJob.takeSnapshots();
+        transfer(first, second, 50);
+        LocalDateTime afterSecondTransfer = pause();
+        transfer(second, first, 25);
+
+        assertThat(balanceAt(first, afterFirstTransfer)).isEqualByComparingTo("900");
+        assertThat(balanceAt(first, afterSecondTransfer)).isEqualByComparingTo("850");
+        assertThat(balanceAt(second, afterSecondTransfer)).isEqualByComparingTo("1150");
+        assertThat(balanceAt(first, LocalDateTime.now())).isEqualByComparingTo("875");
+    }
+
+    private BigDecimal balanceAt(Card card, LocalDateTime at) {
+        CardBalanceDto balance = ledgerService.getBalanceAt(card.getId(), at);
+        return balance.getBalance();
+    }
+
+    private void transfer(Card from, Card to, long amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(from.getId());
+        request.setToCardId(to.getId());
+        request.setAmount(BigDecimal.valueOf(amount));
+        cardService.transferBetweenCards(request, UUID.randomUUID().toString());
+    }
+
+    private static LocalDateTime pause() throws InterruptedException {
+        Thread.sleep(20);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(20);
+        return now;
+    }
+
+    private static Card newCard(User owner) {
+        Card card = new Card();
+        card.setNumber(CardNumberUtil.generateCardNumber());
+        card.setExpirationDate(LocalDateTime.now().plusYears(4));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(1000));
+        card.setUser(owner);
+        return card;
+    }
+}
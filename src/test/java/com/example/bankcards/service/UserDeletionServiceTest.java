@@ -0,0 +1,104 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCardIssueItem;
+import com.example.bankcards.dto.BulkCardIssueRequest;
+import com.example.bankcards.dto.UserDeletionStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class UserDeletionServiceTest extends PostgresIntegrationTest {
+
+    private static final int CARDS = 2500;
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deleteUser_shouldRemoveCardsRolesAndUserWithSetBasedDeletes() throws Exception {
+        User owner = ownerWithCards();
+
+        long startedAt = System.nanoTime();
+        userService.deleteUser(owner.getId());
+        log.info("Синхронно удален пользователь с {} картами за {} мс", CARDS, (System.nanoTime() - startedAt) / 1_000_000);
+
+        assertDeleted(owner);
+    }
+
+    @Test
+    void startDeletion_shouldDeleteInChunksAndReportProgress() throws Exception {
+        User owner = ownerWithCards();
+
+        UserDeletionStatus started = userDeletionService.startDeletion(owner.getId());
+        assertThat(started.getTotalCards()).isEqualTo(CARDS);
+
+        UserDeletionStatus status = started;
+        for (int i = 0; i < 300 && status.getState() == UserDeletionStatus.State.RUNNING; i++) {
+            Thread.sleep(100);
+            status = userDeletionService.getStatus(owner.getId());
+        }
+
+        assertThat(status.getState()).isEqualTo(UserDeletionStatus.State.COMPLETED);
+        assertThat(status.getDeletedCards()).isEqualTo(CARDS);
+        assertThat(status.getFinishedAt()).isNotNull();
+        assertDeleted(owner);
+    }
+
+    @Test
+    void startDeletion_forUnknownUser_shouldThrow() {
+        assertThrows(EntityNotFoundException.class, () -> userDeletionService.startDeletion(Long.MAX_VALUE));
+        assertThrows(EntityNotFoundException.class, () -> userDeletionService.getStatus(Long.MAX_VALUE));
+    }
+
+    private User ownerWithCards() throws IOException {
+        User owner = new User();
+        owner.setUsername("deletion-" + UUID.randomUUID().toString().substring(0, 8));
+        owner.setPassword("password");
+        owner = userRepository.save(owner);
+        jdbcTemplate.update("insert into user_roles (user_id, role_id) select ?, id from roles where name = 'ROLE_USER'",
+                owner.getId());
+
+        BulkCardIssueRequest request = new BulkCardIssueRequest();
+        request.setItems(List.of(new BulkCardIssueItem(owner.getId(), CARDS, BigDecimal.ONE)));
+        cardIssuanceService.issueCards(cardIssuanceService.prepare(request), OutputStream.nullOutputStream());
+        return owner;
+    }
+
+    private void assertDeleted(User owner) {
+        assertThat(userRepository.existsById(owner.getId())).isFalse();
+        assertThat(cardRepository.countByUserId(owner.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user_roles where user_id = ?",
+                Integer.class, owner.getId())).isZero();
+    }
+}
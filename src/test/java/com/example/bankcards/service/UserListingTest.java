@@ -0,0 +1,72 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserListingTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "list_" + UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 3; i++) {
+            saveUser(prefix + "-" + i, prefix + i + "@example.com");
+        }
+        saveUser(prefix.replace('_', 'x') + "-decoy", null);
+    }
+
+    @Test
+    void getUsers_usernamePrefix_shouldPageThroughMatchesOnly() {
+        CursorPage<UserDto> first = userService.getUsers(null, 2, prefix, null);
+        CursorPage<UserDto> next = userService.getUsers(first.getNextCursor(), 2, prefix, null);
+
+        assertThat(first.getContent()).extracting(UserDto::getUsername).containsExactly(prefix + "-0", prefix + "-1");
+        assertThat(next.getContent()).extracting(UserDto::getUsername).containsExactly(prefix + "-2");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getUsers_email_shouldReturnSingleUser() {
+        CursorPage<UserDto> users = userService.getUsers(null, 20, null, prefix + "1@example.com");
+
+        assertThat(users.getContent()).extracting(UserDto::getUsername).containsExactly(prefix + "-1");
+    }
+
+    @Test
+    void exportUsers_shouldWriteOneLinePerUser() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = userService.exportUsers(output);
+
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson.lines().count()).isEqualTo(exported).isEqualTo(userRepository.count());
+        assertThat(ndjson).contains("\"username\":\"" + prefix + "-2\"").doesNotContain("password");
+    }
+
+    private void saveUser(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("password");
+        userRepository.save(user);
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.TokenRevocationStore;
+import com.example.bankcards.security.UserIdentityCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +29,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
     @InjectMocks
     private UserService userService;
     
@@ -39,13 +53,41 @@ class UserServiceTest {
     }
 
     @Test
-    void getAllUsers_shouldReturnMappedDtos() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+    void getUsers_withoutFilters_shouldSeekAfterCursor() {
+        UserDto dto = new UserDto(11L, "Иван", "Иван Иванов", "ivan@example.com");
+        when(userRepository.findUserDtosAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(dto));
 
-        List<UserDto> users = userService.getAllUsers();
+        CursorPage<UserDto> users = userService.getUsers("10", 1, null, null);
 
-        assertThat(users).hasSize(1);
-        assertThat(users.get(0).getUsername()).isEqualTo("Иван");
+        assertThat(users.getContent()).containsExactly(dto);
+        assertThat(users.getNextCursor()).isEqualTo("11");
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void getUsers_usernamePrefix_shouldEscapeLikeWildcards() {
+        when(userRepository.findUserDtosByUsernameLike(eq("iv!_a!%n%"), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        CursorPage<UserDto> users = userService.getUsers(null, 20, "iv_a%n", null);
+
+        assertThat(users.getContent()).isEmpty();
+        assertThat(users.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getUsers_email_shouldUseUniqueLookup() {
+        UserDto dto = new UserDto(1L, "Иван", "Иван Иванов", "ivan@example.com");
+        when(userRepository.findUserDtoByEmail("ivan@example.com")).thenReturn(Optional.of(dto));
+
+        CursorPage<UserDto> users = userService.getUsers(null, 20, "Пётр", "ivan@example.com");
+
+        assertThat(users.getContent()).isEmpty();
+    }
+
+    @Test
+    void getUsers_invalidSize_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers(null, 0, null, null));
     }
 
     @Test
@@ -82,13 +124,35 @@ class UserServiceTest {
 
     @Test
     void deleteUserById_shouldCallRepository() {
+        when(userRepository.deleteRowById(1L)).thenReturn(1);
+
         userService.deleteUser(1L);
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(cardRepository).deleteAllByUserId(1L);
+        verify(userRepository).deleteRolesByUserId(1L);
+        verify(userRepository).deleteRowById(1L);
+        verify(userRepository, never()).deleteById(any());
+        verify(tokenRevocationStore).revoke(1L);
+        verify(userIdentityCache).invalidate(1L);
     }
 
     @Test
     void deleteUserByUsername_shouldCallRepository() {
+        when(userRepository.findIdByUsername("Иван")).thenReturn(Optional.of(1L));
+        when(userRepository.deleteRowById(1L)).thenReturn(1);
+
         userService.deleteUser("Иван");
-        verify(userRepository, times(1)).deleteByUsername("Иван");
+        verify(cardRepository).deleteAllByUserId(1L);
+        verify(userRepository).deleteRowById(1L);
+        verify(tokenRevocationStore).revoke(1L);
+        verify(userIdentityCache).invalidate("Иван");
+    }
+
+    @Test
+    void deleteUserById_notFound_shouldThrowWithoutRevoking() {
+        when(userRepository.deleteRowById(2L)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> userService.deleteUser(2L));
+        verify(tokenRevocationStore, never()).revoke(any());
+        verify(userIdentityCache, never()).invalidate(any(Long.class));
     }
-}
\ No newline at end of file
+}
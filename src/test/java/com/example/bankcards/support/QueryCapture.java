@@ -0,0 +1,105 @@
+package com.example.bankcards.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class QueryCapture implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+    private final List<CapturedQuery> queries = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    public synchronized List<CapturedQuery> capture(Runnable action) {
+        queries.clear();
+        recording = true;
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+        return List.copyOf(queries);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, (method, result, args) ->
+                    result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatement) : result);
+        }
+        return bean;
+    }
+
+    private Object wrapStatement(Method method, Object result, Object[] args) {
+        if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+            List<Binding> bindings = new ArrayList<>();
+            String sql = (String) args[0];
+            return proxy(PreparedStatement.class, statement, (call, value, callArgs) -> {
+                if (call.getName().startsWith("set") && callArgs != null && callArgs.length >= 2
+                        && callArgs[0] instanceof Integer) {
+                    bindings.add(new Binding(call, callArgs));
+                } else if (call.getName().equals("clearParameters")) {
+                    bindings.clear();
+                } else if (recording && EXECUTE_METHODS.contains(call.getName()) && (callArgs == null || callArgs.length == 0)) {
+                    queries.add(new CapturedQuery(sql, List.copyOf(bindings)));
+                }
+                return value;
+            });
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryCapture.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, invoke(target, method, args), args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface ResultHandler {
+        Object handle(Method method, Object result, Object[] args);
+    }
+
+    private record Binding(Method method, Object[] args) {
+    }
+
+    public record CapturedQuery(String sql, List<Binding> bindings) {
+
+        public String explain(Connection connection) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+                for (Binding binding : bindings) {
+                    try {
+                        invoke(statement, binding.method(), binding.args());
+                    } catch (SQLException e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException("Не удалось повторить параметр запроса " + sql, e);
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        }
+    }
+}
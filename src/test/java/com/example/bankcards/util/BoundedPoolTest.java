@@ -0,0 +1,44 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPoolTest {
+
+    @Test
+    void acquire_afterRelease_shouldReuseInstance() {
+        AtomicInteger created = new AtomicInteger();
+        BoundedPool<Object> pool = new BoundedPool<>(() -> {
+            created.incrementAndGet();
+            return new Object();
+        }, 2);
+
+        Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void release_overCapacity_shouldDropExtraInstances() {
+        BoundedPool<Object> pool = new BoundedPool<>(Object::new, 2);
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+        Object third = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(2, pool.idle());
+    }
+
+    @Test
+    void create_withNonPositiveSize_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedPool<>(Object::new, 0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberEncryptorTest {
+
+    private static final String KEY = "HI+CGVOKpbpb/ejYTYXp3oe+Dhevif5eZDI7p4taKjQ=";
+    private static final String NEW_KEY = "AOheJhVsQLzek7u+CHUwHA3fU2P2NbOA7PDoOfWbDxw=";
+
+    private CardNumberEncryptor encryptor;
+
+    @BeforeEach
+    void setUp() {
+        encryptor = new CardNumberEncryptor(KEY, 1, "");
+    }
+
+    @Test
+    void encryptAndDecrypt_shouldReturnOriginalNumber() {
+        String encrypted = encryptor.convertToDatabaseColumn("1111222233334444");
+
+        assertTrue(encrypted.startsWith("v1:"));
+        assertEquals("1111222233334444", encryptor.convertToEntityAttribute(encrypted));
+    }
+
+    @Test
+    void encrypt_shouldUseRandomIv() {
+        assertNotEquals(encryptor.convertToDatabaseColumn("1111222233334444"),
+                encryptor.convertToDatabaseColumn("1111222233334444"));
+    }
+
+    @Test
+    void decrypt_legacyValue_shouldBeSupported() {
+        assertEquals("1691558574739937", encryptor.convertToEntityAttribute("jc3zGDU0Oo173ne8FBMCOaR4FOCKWwuCt7iqlVy6aUA="));
+    }
+
+    @Test
+    void drainDecryptNanos_shouldAccumulateUntilDrained() {
+        String encrypted = encryptor.convertToDatabaseColumn("1111222233334444");
+        encryptor.drainDecryptNanos();
+
+        encryptor.convertToEntityAttribute(encrypted);
+        encryptor.convertToEntityAttribute(encrypted);
+
+        assertTrue(encryptor.drainDecryptNanos() > 0);
+        assertEquals(0, encryptor.drainDecryptNanos());
+    }
+
+    @Test
+    void drainDecryptNanos_shouldSeeDecryptsOfOtherInstances() {
+        CardNumberEncryptor converter = new CardNumberEncryptor(KEY, 1, "");
+        String encrypted = converter.convertToDatabaseColumn("1111222233334444");
+        encryptor.drainDecryptNanos();
+
+        converter.convertToEntityAttribute(encrypted);
+
+        assertTrue(encryptor.drainDecryptNanos() > 0);
+    }
+
+    @Test
+    void decrypt_afterKeyRotation_shouldUseRetiredKey() {
+        String encrypted = encryptor.convertToDatabaseColumn("1111222233334444");
+        CardNumberEncryptor rotated = new CardNumberEncryptor(NEW_KEY, 2, "0:" + KEY + ",1:" + KEY);
+
+        assertEquals("1111222233334444", rotated.convertToEntityAttribute(encrypted));
+        assertEquals("1691558574739937", rotated.convertToEntityAttribute("jc3zGDU0Oo173ne8FBMCOaR4FOCKWwuCt7iqlVy6aUA="));
+        assertTrue(rotated.convertToDatabaseColumn("1111222233334444").startsWith("v2:"));
+    }
+
+    @Test
+    void create_afterKeyRotationWithoutLegacyKey_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CardNumberEncryptor(NEW_KEY, 2, "1:" + KEY));
+    }
+
+    @Test
+    void decrypt_tamperedValue_shouldThrow() {
+        String encrypted = encryptor.convertToDatabaseColumn("1111222233334444");
+        char last = encrypted.charAt(encrypted.length() - 3);
+        String tampered = encrypted.substring(0, encrypted.length() - 3) + (last == 'A' ? 'B' : 'A') + encrypted.substring(encrypted.length() - 2);
+
+        assertThrows(IllegalArgumentException.class, () -> encryptor.convertToEntityAttribute(tampered));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberHasherTest {
+
+    private CardNumberHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new CardNumberHasher(Base64.getEncoder().encodeToString("hash-key-1234567890hash-key-1234".getBytes()));
+    }
+
+    @Test
+    void hashNumber_shouldBeDeterministic() {
+        assertEquals(hasher.hashNumber("1111222233334444"), hasher.hashNumber("1111222233334444"));
+        assertNotEquals(hasher.hashNumber("1111222233334444"), hasher.hashNumber("1111222233334445"));
+    }
+
+    @Test
+    void hashLastDigits_shouldMatchFilterOfFourDigits() {
+        assertEquals(hasher.hashLastDigits("1111222233334444"), hasher.hashLastDigits("4444"));
+    }
+
+    @Test
+    void hashNumber_shouldDependOnKey() {
+        CardNumberHasher other = new CardNumberHasher(Base64.getEncoder().encodeToString("other-key-234567890other-key-234".getBytes()));
+
+        assertNotEquals(hasher.hashNumber("1111222233334444"), other.hashNumber("1111222233334444"));
+    }
+}
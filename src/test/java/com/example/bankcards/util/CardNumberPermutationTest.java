@@ -0,0 +1,54 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberPermutationTest {
+
+    private static final byte[] KEY = "issuing-key-issuing-key-issuing!".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void cardNumber_shouldBeUniqueLuhnValidAndKeepBin() {
+        CardNumberPermutation permutation = new CardNumberPermutation("22007012", KEY);
+        Set<String> numbers = new HashSet<>();
+
+        for (long index = 0; index < 50_000; index++) {
+            String number = permutation.cardNumber(index);
+            assertTrue(number.matches("22007012\\d{8}"), number);
+            assertTrue(CardNumberUtil.isLuhnValid(number), number);
+            assertTrue(numbers.add(number), number);
+        }
+    }
+
+    @Test
+    void cardNumber_shouldNotRevealSequence() {
+        CardNumberPermutation permutation = new CardNumberPermutation("220070", KEY);
+
+        assertNotEquals("220070000000001", permutation.cardNumber(1).substring(0, 15));
+        assertNotEquals("220070000000002", permutation.cardNumber(2).substring(0, 15));
+    }
+
+    @Test
+    void cardNumber_sameKey_shouldBeStable() {
+        assertEquals(new CardNumberPermutation("220070", KEY).cardNumber(42),
+                new CardNumberPermutation("220070", KEY).cardNumber(42));
+    }
+
+    @Test
+    void cardNumber_outOfRange_shouldThrow() {
+        CardNumberPermutation permutation = new CardNumberPermutation("22007012", KEY);
+
+        assertEquals(10_000_000L, permutation.capacity());
+        assertThrows(IllegalStateException.class, () -> permutation.cardNumber(permutation.capacity()));
+    }
+
+    @Test
+    void constructor_invalidBin_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CardNumberPermutation("2200", KEY));
+    }
+}
@@ -29,6 +29,19 @@ class CardNumberUtilTest {
         assertNotEquals(first, second);
     }
 
+    @Test
+    void generateCardNumber_shouldBeLuhnValid() {
+        assertTrue(CardNumberUtil.isLuhnValid(CardNumberUtil.generateCardNumber()));
+    }
+
+    @Test
+    void luhnCheckDigit_shouldMatchKnownNumbers() {
+        assertEquals('1', CardNumberUtil.luhnCheckDigit("411111111111111"));
+        assertEquals('4', CardNumberUtil.luhnCheckDigit("555555555555444"));
+        assertTrue(CardNumberUtil.isLuhnValid("4111111111111111"));
+        assertFalse(CardNumberUtil.isLuhnValid("4111111111111112"));
+    }
+
     @Test
     void maskCardNumber_shouldHideFirst12Digits() {
         String masked = CardNumberUtil.maskCardNumber("0123456789012345");
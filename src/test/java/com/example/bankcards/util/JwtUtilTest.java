@@ -64,4 +64,22 @@ class JwtUtilTest {
         assertThat(username).isEqualTo("Иван Иванов");
     }
 
+    @Test
+    void parseClaims_shouldReturnClaimsForValidToken() {
+        UserDetails user = new User("Иван Иванов", "pass", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtil.generateToken(user);
+
+        assertThat(jwtUtil.parseClaims(token))
+                .hasValueSatisfying(claims -> assertThat(claims.getSubject()).isEqualTo("Иван Иванов"));
+    }
+
+    @Test
+    void parseClaims_shouldBeEmptyForTamperedToken() {
+        UserDetails user = new User("Иван Иванов", "pass", List.of());
+        String token = jwtUtil.generateToken(user);
+
+        assertThat(jwtUtil.parseClaims(token + "x")).isEmpty();
+        assertThat(jwtUtil.validateToken(token + "x")).isFalse();
+    }
+
 }